@@ -0,0 +1,58 @@
+package com.suza.promotion.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class NotificationConfig {
+
+    // Drains the per-stream queues, one task per stream at a time; a few threads so a stalled client
+    // holds only one of them
+    @Bean
+    public ThreadPoolTaskExecutor notificationPushExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setThreadNamePrefix("notification-push-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        return executor;
+    }
+
+    // Drains the outbox; one thread, since at most one drain is queued at a time anyway
+    @Bean
+    public ThreadPoolTaskExecutor outboxDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("outbox-dispatcher-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Sends queued emails; one thread holds one paced SMTP session at a time
+    @Bean
+    public ThreadPoolTaskExecutor mailWorkerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("mail-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // The nightly purge pauses between batches, so it runs here rather than holding the scheduler thread.
+    // No queue: a purge started while the last one still runs is skipped.
+    @Bean
+    public ThreadPoolTaskExecutor notificationRetentionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("notification-retention-");
+        return executor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.suza.promotion.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PreviewConfig {
+
+    // Rendering is CPU and memory heavy, so it gets a small pool with a bounded queue
+    @Bean
+    public ThreadPoolTaskExecutor previewExecutor(@Value("${preview.threads:2}") int threads,
+                                                  @Value("${preview.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("preview-");
+        return executor;
+    }
+}
@@ -2,9 +2,12 @@ package com.suza.promotion.controller;
 
 import com.suza.promotion.dto.DepartmentDTO;
 import com.suza.promotion.services.DepartmentService;
+import com.suza.promotion.services.ReferenceDataVersionService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,9 +15,12 @@ import java.util.List;
 @RequestMapping("/api/departments")
 public class DepartmentController {
     private final DepartmentService departmentService;
+    private final ReferenceDataVersionService referenceDataVersions;
 
-    public DepartmentController(DepartmentService departmentService) {
+    public DepartmentController(DepartmentService departmentService,
+                                ReferenceDataVersionService referenceDataVersions) {
         this.departmentService = departmentService;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     @PostMapping
@@ -23,8 +29,13 @@ public class DepartmentController {
     }
 
     @GetMapping
-    public List<DepartmentDTO> getAll() {
-        return departmentService.getAllDepartments();
+    public ResponseEntity<List<DepartmentDTO>> getAll(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(departmentService.getAllDepartments());
     }
 
     @GetMapping("/{id}")
@@ -33,8 +44,13 @@ public class DepartmentController {
     }
 
     @GetMapping("/school/{schoolId}")
-    public List<DepartmentDTO> getBySchool(@PathVariable Long schoolId) {
-        return departmentService.getDepartmentsBySchool(schoolId);
+    public ResponseEntity<List<DepartmentDTO>> getBySchool(@PathVariable Long schoolId, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(departmentService.getDepartmentsBySchool(schoolId));
     }
 
     @PutMapping("/{id}")
@@ -47,5 +63,10 @@ public class DepartmentController {
         departmentService.deleteDepartment(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    // Answers 304 from the in-memory version when the client's copy is current
+    private boolean notModified(WebRequest webRequest) {
+        return webRequest.checkNotModified(referenceDataVersions.departmentsETag(),
+                referenceDataVersions.departmentsLastModified());
+    }
+}
@@ -1,23 +1,55 @@
 package com.suza.promotion.controller;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.DocumentDTO;
+import com.suza.promotion.dto.PreviewDTO;
+import com.suza.promotion.dto.UploadSessionDTO;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.exception.UploadOffsetMismatchException;
+import com.suza.promotion.services.ChunkedUploadService;
 import com.suza.promotion.services.DocumentService;
+import com.suza.promotion.services.PreviewService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/documents")
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final PreviewService previewService;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, ChunkedUploadService chunkedUploadService,
+                              PreviewService previewService) {
         this.documentService = documentService;
+        this.chunkedUploadService = chunkedUploadService;
+        this.previewService = previewService;
     }
 
     @PostMapping("/upload")
@@ -29,14 +61,268 @@ public class DocumentController {
         return documentService.uploadDocument(file, requestId, userId, documentType, description);
     }
 
+    /**
+     * Upload with the file as the raw request body instead of a multipart form,
+     * so it is read once, straight into storage. Metadata travels in the query
+     * string; the body needs a Content-Length.
+     */
+    @PostMapping("/upload/stream")
+    public ResponseEntity<DocumentDTO> uploadStream(@RequestParam("requestId") Long requestId,
+                                                    @RequestParam("userId") Long userId,
+                                                    @RequestParam("filename") String filename,
+                                                    @RequestParam("documentType") String documentType,
+                                                    @RequestParam("description") String description,
+                                                    HttpServletRequest request) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType != null && (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE))) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        try {
+            return ResponseEntity.ok(documentService.uploadStream(request.getInputStream(), contentLength,
+                    requestId, userId, filename, contentType, documentType, description));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Thumbnail link and text excerpt; 202 while the preview is still being rendered
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<PreviewDTO> getPreview(@PathVariable Long id) throws IOException {
+        PreviewDTO preview = previewService.getPreview(id);
+        if (PreviewService.PENDING.equals(preview.getStatus())) {
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "2").body(preview);
+        }
+        return ResponseEntity.ok(preview);
+    }
+
+    @GetMapping("/{id}/preview/thumbnail")
+    public ResponseEntity<byte[]> getThumbnail(@PathVariable Long id) throws IOException {
+        PreviewDTO preview = previewService.getPreview(id);
+        if (PreviewService.PENDING.equals(preview.getStatus())) {
+            return ResponseEntity.accepted().header(HttpHeaders.RETRY_AFTER, "2").build();
+        }
+        // Keyed by content, so a thumbnail never changes
+        return previewService.getThumbnail(id)
+                .map(png -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                        .body(png))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Resumable upload for files over the multipart limit: initiate, PUT chunks in order, complete
+    @PostMapping("/uploads")
+    public UploadSessionDTO initiateUpload(@RequestParam("requestId") Long requestId,
+                                           @RequestParam("userId") Long userId,
+                                           @RequestParam("filename") String filename,
+                                           @RequestParam(value = "contentType", required = false) String contentType,
+                                           @RequestParam("documentType") String documentType,
+                                           @RequestParam("description") String description,
+                                           @RequestParam("totalSize") long totalSize) throws IOException {
+        return chunkedUploadService.initiate(requestId, userId, filename, contentType,
+                documentType, description, totalSize);
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public UploadSessionDTO getUploadProgress(@PathVariable String uploadId) throws IOException {
+        return chunkedUploadService.getProgress(uploadId);
+    }
+
+    // The body is the raw chunk; a 409 carries the offset to resume from, a 400 means it overran the size
+    @PutMapping(value = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDTO> uploadChunk(@PathVariable String uploadId,
+                                                        @RequestParam("offset") long offset,
+                                                        HttpServletRequest request) throws IOException {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.appendChunk(uploadId, offset, request.getInputStream()));
+        } catch (UploadOffsetMismatchException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(chunkedUploadService.getProgress(uploadId));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(chunkedUploadService.getProgress(uploadId));
+        }
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) throws IOException {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.complete(uploadId));
+        } catch (UploadOffsetMismatchException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(chunkedUploadService.getProgress(uploadId));
+        } catch (ResourceNotFoundException ex) {
+            // Also what a second, concurrent complete of the same upload gets
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    public void abortUpload(@PathVariable String uploadId) throws IOException {
+        chunkedUploadService.abort(uploadId);
+    }
+
+    /**
+     * Streams the file from storage; honours conditional GETs and a single-range Range
+     * header. A compressed file is sent as stored, with Content-Encoding, to clients
+     * that accept the codec and inflated on the fly for the rest; each form has its
+     * own ETag and ranges apply to the form being sent.
+     */
     @GetMapping("/{id}/download")
-    public void download(@PathVariable Long id, HttpServletResponse response) throws IOException {
-        byte[] fileData = documentService.downloadFile(id);
-        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
-        response.getOutputStream().write(fileData);
+    public void download(@PathVariable Long id, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Document document = documentService.getDocument(id);
+        // 404 when the content is missing
+        long storedSize = documentService.storedSize(document);
+        String encoding = document.getContentEncoding();
+        boolean passThrough = encoding != null && acceptsEncoding(request, encoding);
+        boolean inflate = encoding != null && !passThrough;
+        long length = inflate ? documentService.contentLength(document) : storedSize;
+        // Stored content never changes after upload; HTTP dates have second precision
+        long lastModified = document.getUploadedAt() != null
+                ? document.getUploadedAt().atZone(ZoneId.systemDefault()).toEpochSecond() * 1000 : -1;
+        String checksum = documentService.getChecksum(document);
+        String etag = "\"" + (passThrough ? checksum + "-" + encoding : checksum) + "\"";
+
+        // Stored files never change, so clients may keep them and revalidate with the ETag
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(document.getContentType() != null
+                ? document.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(document.getOriginalName(), StandardCharsets.UTF_8).build().toString());
+        if (passThrough) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException ex) {
+                start = length;
+            }
+            if (start >= length || start > end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+
+        Optional<Path> local = inflate ? Optional.empty() : documentService.localFile(document);
+        if (local.isEmpty()) {
+            try (InputStream in = inflate ? documentService.openContent(document) : documentService.openStored(document)) {
+                in.skipNBytes(start);
+                copy(in, response.getOutputStream(), end - start + 1);
+            }
+        } else {
+            try (FileChannel channel = FileChannel.open(local.get(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                long remaining = end - start + 1;
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, out);
+                    if (sent <= 0) break;
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        }
         response.flushBuffer();
     }
 
+    private void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[8192];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) break;
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    // True if Accept-Encoding lists the codec, or *, without q=0
+    private boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String item : header.split(",")) {
+            String[] parts = item.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase(encoding) && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) == 0;
+                    } catch (NumberFormatException ex) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The single range to serve, or null for the whole file. Malformed and
+     * multi-range headers fall back to the whole file, as does an If-Range
+     * validator that no longer matches.
+     */
+    private HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!ifRange.equals(etag)) {
+                    return null;
+                }
+            } else {
+                long ifRangeDate;
+                try {
+                    ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+                } catch (IllegalArgumentException ex) {
+                    return null;
+                }
+                if (ifRangeDate != lastModified) {
+                    return null;
+                }
+            }
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
     @GetMapping("/request/{requestId}")
     public List<DocumentDTO> getByRequest(@PathVariable Long requestId) {
         return documentService.getDocumentsByRequest(requestId);
@@ -52,6 +338,37 @@ public class DocumentController {
         return documentService.getDocumentsByType(type);
     }
 
+    // All documents of a request in one ZIP, streamed as it is compressed
+    @GetMapping("/request/{requestId}/zip")
+    public void downloadBundle(@PathVariable Long requestId, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("request-" + requestId + "-documents.zip").build().toString());
+        documentService.writeRequestBundle(requestId, response.getOutputStream());
+        response.flushBuffer();
+    }
+
+    @GetMapping("/request/{requestId}/page")
+    public CursorPageDTO<DocumentDTO> getByRequestPage(@PathVariable Long requestId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        return documentService.getDocumentsByRequest(requestId, cursor, size);
+    }
+
+    @GetMapping("/uploader/{userId}/page")
+    public CursorPageDTO<DocumentDTO> getByUploaderPage(@PathVariable Long userId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return documentService.getDocumentsByUploader(userId, cursor, size);
+    }
+
+    @GetMapping("/type/{type}/page")
+    public CursorPageDTO<DocumentDTO> getByTypePage(@PathVariable String type,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return documentService.getDocumentsByType(type, cursor, size);
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         documentService.deleteDocument(id);
@@ -1,8 +1,16 @@
 package com.suza.promotion.controller;
 
+import com.suza.promotion.dto.BroadcastNotificationDTO;
+import com.suza.promotion.dto.BulkResultDTO;
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.NotificationDTO;
+import com.suza.promotion.dto.UnreadCountDTO;
 import com.suza.promotion.services.NotificationService;
+import com.suza.promotion.services.NotificationStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -12,9 +20,12 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationStreamService streamService;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService,
+                                  NotificationStreamService streamService) {
         this.notificationService = notificationService;
+        this.streamService = streamService;
     }
 
     @PostMapping("/user/{userId}")
@@ -47,6 +58,40 @@ public class NotificationController {
         notificationService.markAsRead(id);
     }
 
+    // Bulk endpoints run as single set-based statements; at most 1000 ids per call
+    @PostMapping("/read")
+    public ResponseEntity<BulkResultDTO> markAsRead(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(notificationService.markAsRead(ids));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/user/{userId}/read-all")
+    public BulkResultDTO markAllAsRead(@PathVariable Long userId) {
+        return notificationService.markAllAsRead(userId);
+    }
+
+    @PostMapping("/delete")
+    public ResponseEntity<BulkResultDTO> deleteAll(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(notificationService.deleteNotifications(ids));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // One SYSTEM_NOTIFICATION per active user matching the role/school/department filter
+    @PostMapping("/broadcast")
+    public ResponseEntity<BulkResultDTO> broadcast(@RequestBody BroadcastNotificationDTO dto) {
+        try {
+            return ResponseEntity.ok(notificationService.broadcast(dto));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/user/{userId}")
     public List<NotificationDTO> getByUser(@PathVariable Long userId) {
         return notificationService.getUserNotifications(userId);
@@ -57,8 +102,56 @@ public class NotificationController {
         return notificationService.getUnreadUserNotifications(userId);
     }
 
+    // Badge count, read from the per-user counter rather than the notifications
+    @GetMapping("/user/{userId}/unread/count")
+    public UnreadCountDTO getUnreadCount(@PathVariable Long userId) {
+        return notificationService.getUnreadCount(userId);
+    }
+
+    // Live push of new notifications; EventSource resends the last id it saw on reconnect
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long userId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                             @RequestParam(required = false) Long since) {
+        return streamService.subscribe(userId, lastEventId != null ? lastEventId : since);
+    }
+
     @GetMapping("/type/{type}")
     public List<NotificationDTO> getByType(@PathVariable String type) {
         return notificationService.getNotificationsByType(type);
     }
+
+    @GetMapping("/page")
+    public CursorPageDTO<NotificationDTO> getAllPage(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        return notificationService.getAllNotifications(cursor, size);
+    }
+
+    @GetMapping("/user/{userId}/page")
+    public CursorPageDTO<NotificationDTO> getByUserPage(@PathVariable Long userId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return notificationService.getUserNotifications(userId, cursor, size);
+    }
+
+    @GetMapping("/user/{userId}/unread/page")
+    public CursorPageDTO<NotificationDTO> getUnreadByUserPage(@PathVariable Long userId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return notificationService.getUnreadUserNotifications(userId, cursor, size);
+    }
+
+    @GetMapping("/user/{userId}/archive/page")
+    public CursorPageDTO<NotificationDTO> getArchivedByUserPage(@PathVariable Long userId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        return notificationService.getArchivedNotifications(userId, cursor, size);
+    }
+
+    @GetMapping("/type/{type}/page")
+    public CursorPageDTO<NotificationDTO> getByTypePage(@PathVariable String type,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return notificationService.getNotificationsByType(type, cursor, size);
+    }
 }
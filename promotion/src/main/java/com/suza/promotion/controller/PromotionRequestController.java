@@ -1,10 +1,20 @@
 package com.suza.promotion.controller;
 
+import com.suza.promotion.dto.CursorPageDTO;
+import com.suza.promotion.dto.FacetCountsDTO;
 import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionRequestFilterDTO;
+import com.suza.promotion.services.PromotionRequestExportService;
+import com.suza.promotion.services.PromotionRequestFacetService;
 import com.suza.promotion.services.PromotionRequestService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -12,9 +22,15 @@ import java.util.List;
 public class PromotionRequestController {
 
     private final PromotionRequestService promotionRequestService;
+    private final PromotionRequestExportService exportService;
+    private final PromotionRequestFacetService facetService;
 
-    public PromotionRequestController(PromotionRequestService promotionRequestService) {
+    public PromotionRequestController(PromotionRequestService promotionRequestService,
+                                      PromotionRequestExportService exportService,
+                                      PromotionRequestFacetService facetService) {
         this.promotionRequestService = promotionRequestService;
+        this.exportService = exportService;
+        this.facetService = facetService;
     }
 
     @PostMapping("/{applicantId}")
@@ -64,4 +80,81 @@ public class PromotionRequestController {
     public List<PromotionRequestDTO> getBySchool(@PathVariable Long schoolId) {
         return promotionRequestService.getRequestsBySchool(schoolId);
     }
+
+    // Keyset-paginated variants: pass back nextCursor to get the following page
+    @GetMapping("/applicant/{applicantId}/page")
+    public CursorPageDTO<PromotionRequestDTO> getByApplicantPage(@PathVariable Long applicantId,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
+        return promotionRequestService.getRequestsByApplicant(applicantId, cursor, size);
+    }
+
+    @GetMapping("/status/{status}/page")
+    public CursorPageDTO<PromotionRequestDTO> getByStatusPage(@PathVariable String status,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return promotionRequestService.getRequestsByStatus(status, cursor, size);
+    }
+
+    @GetMapping("/department/{deptId}/page")
+    public CursorPageDTO<PromotionRequestDTO> getByDepartmentPage(@PathVariable Long deptId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return promotionRequestService.getRequestsByDepartment(deptId, cursor, size);
+    }
+
+    @GetMapping("/school/{schoolId}/page")
+    public CursorPageDTO<PromotionRequestDTO> getBySchoolPage(@PathVariable Long schoolId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return promotionRequestService.getRequestsBySchool(schoolId, cursor, size);
+    }
+
+    // Combined filters, e.g. ?status=SUBMITTED,HOD_REVIEWED&schoolId=1&submittedFrom=2025-01-01&sort=submissionDate
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<PromotionRequestDTO>> search(PromotionRequestFilterDTO filter,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(promotionRequestService.searchRequests(filter, cursor, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Dashboard counts per status, school, department, applied rank and month; same filters as /search
+    @GetMapping("/facets")
+    public ResponseEntity<FacetCountsDTO> facets(PromotionRequestFilterDTO filter) {
+        try {
+            return ResponseEntity.ok(facetService.countFacets(filter));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Bulk export for HR; from/to filter on submission date (inclusive)
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "csv") String format,
+                       @RequestParam(required = false) String status,
+                       @RequestParam(required = false) Long schoolId,
+                       @RequestParam(required = false) Long departmentId,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                       HttpServletResponse response) throws IOException {
+        PromotionRequestExportService.Format exportFormat;
+        PromotionRequestExportService.Filter exportFilter;
+        try {
+            exportFormat = PromotionRequestExportService.Format.of(format);
+            exportFilter = exportService.filter(status, schoolId, departmentId, from, to);
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"promotion-requests." + exportFormat.getExtension() + "\"");
+        exportService.export(exportFormat, exportFilter, response.getOutputStream());
+        response.flushBuffer();
+    }
 }
@@ -1,5 +1,6 @@
 package com.suza.promotion.controller;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.PromotionReviewDTO;
 import com.suza.promotion.services.PromotionReviewService;
 import org.springframework.http.HttpStatus;
@@ -58,5 +59,31 @@ public class PromotionReviewController {
         List<PromotionReviewDTO> list = reviewService.findByDecision(decision);
         return ResponseEntity.ok(list);
     }
-}
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<PromotionReviewDTO>> getAllReviewsPage(@RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.getAllReviews(cursor, size));
+    }
+
+    @GetMapping("/by-reviewer/{reviewerId}/page")
+    public ResponseEntity<CursorPageDTO<PromotionReviewDTO>> getByReviewerPage(@PathVariable Long reviewerId,
+                                                                               @RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.findByReviewer(reviewerId, cursor, size));
+    }
+
+    @GetMapping("/by-request/{requestId}/page")
+    public ResponseEntity<CursorPageDTO<PromotionReviewDTO>> getByPromotionRequestPage(@PathVariable Long requestId,
+                                                                                       @RequestParam(required = false) String cursor,
+                                                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.findByPromotionRequest(requestId, cursor, size));
+    }
+
+    @GetMapping("/by-decision/{decision}/page")
+    public ResponseEntity<CursorPageDTO<PromotionReviewDTO>> getByDecisionPage(@PathVariable String decision,
+                                                                               @RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reviewService.findByDecision(decision, cursor, size));
+    }
+}
@@ -0,0 +1,56 @@
+package com.suza.promotion.controller;
+
+import com.suza.promotion.dto.RequestStatsDTO;
+import com.suza.promotion.dto.StageDurationDTO;
+import com.suza.promotion.services.PromotionRequestStatsService;
+import com.suza.promotion.services.StageDurationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final PromotionRequestStatsService statsService;
+    private final StageDurationService stageDurationService;
+
+    public ReportController(PromotionRequestStatsService statsService, StageDurationService stageDurationService) {
+        this.statsService = statsService;
+        this.stageDurationService = stageDurationService;
+    }
+
+    // Precomputed counts and stage durations; from/to are inclusive yyyy-MM periods
+    @GetMapping("/request-stats")
+    public ResponseEntity<List<RequestStatsDTO>> getRequestStats(@RequestParam(required = false) Long schoolId,
+                                                                 @RequestParam(required = false) Long departmentId,
+                                                                 @RequestParam(required = false) String status,
+                                                                 @RequestParam(required = false) String from,
+                                                                 @RequestParam(required = false) String to) {
+        try {
+            return ResponseEntity.ok(statsService.getStats(schoolId, departmentId, status, from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // p50/p90/p99 hours per approval stage, overall and per school and department; from/to filter on submission date
+    @GetMapping("/stage-durations")
+    public ResponseEntity<List<StageDurationDTO>> getStageDurations(
+            @RequestParam(required = false) Long schoolId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(stageDurationService.getStageDurations(schoolId, departmentId, from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
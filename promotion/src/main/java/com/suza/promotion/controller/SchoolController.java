@@ -1,9 +1,12 @@
 package com.suza.promotion.controller;
 
 import com.suza.promotion.dto.SchoolDTO;
+import com.suza.promotion.services.ReferenceDataVersionService;
 import com.suza.promotion.services.SchoolService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -12,9 +15,11 @@ import java.util.List;
 public class SchoolController {
 
     private final SchoolService schoolService;
+    private final ReferenceDataVersionService referenceDataVersions;
 
-    public SchoolController(SchoolService schoolService) {
+    public SchoolController(SchoolService schoolService, ReferenceDataVersionService referenceDataVersions) {
         this.schoolService = schoolService;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     @PostMapping
@@ -23,8 +28,14 @@ public class SchoolController {
     }
 
     @GetMapping
-    public ResponseEntity<List<SchoolDTO>> getAllSchools() {
-        return ResponseEntity.ok(schoolService.getAllSchools());
+    public ResponseEntity<List<SchoolDTO>> getAllSchools(WebRequest webRequest) {
+        String etag = referenceDataVersions.schoolsETag();
+        if (webRequest.checkNotModified(etag, referenceDataVersions.schoolsLastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(schoolService.getAllSchools());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,32 @@
+package com.suza.promotion.controller;
+
+import com.suza.promotion.dto.SearchResultsDTO;
+import com.suza.promotion.services.SearchIndexService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchIndexService searchIndexService;
+
+    public SearchController(SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    // Ranked matches across requests, review comments and document text; kind narrows to one of them
+    @GetMapping
+    public ResponseEntity<SearchResultsDTO> search(@RequestParam("q") String query,
+                                                   @RequestParam(required = false) String kind,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(required = false) Integer size) throws IOException {
+        try {
+            return ResponseEntity.ok(searchIndexService.search(query, kind, page, size));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
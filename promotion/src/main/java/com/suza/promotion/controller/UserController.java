@@ -1,5 +1,6 @@
 package com.suza.promotion.controller;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.RegisterUserDTO;
 import com.suza.promotion.dto.UserDTO;
 import com.suza.promotion.dto.UserProfileDTO;
@@ -50,6 +51,24 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Typeahead over name, email and employee id, served from memory
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<UserDTO>> typeahead(@RequestParam("q") String query,
+                                                   @RequestParam(required = false) String role,
+                                                   @RequestParam(required = false) Long schoolId,
+                                                   @RequestParam(required = false) Long departmentId,
+                                                   @RequestParam(required = false) Integer limit) {
+        User.Role userRole = null;
+        if (role != null) {
+            try {
+                userRole = User.Role.valueOf(role.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        return ResponseEntity.ok(userService.typeahead(query, userRole, schoolId, departmentId, limit));
+    }
+
     // Check if email exists
     @GetMapping("/exists")
     public ResponseEntity<Boolean> existsByEmail(@RequestParam("email") String email) {
@@ -83,4 +102,41 @@ public class UserController {
         List<UserDTO> users = userService.findBySchoolId(schoolId);
         return ResponseEntity.ok(users);
     }
+
+    // Get users one keyset page at a time
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<UserDTO>> getAllUsersPage(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getAllUsers(cursor, size));
+    }
+
+    // Get users by role, paginated
+    @GetMapping("/role/{role}/page")
+    public ResponseEntity<CursorPageDTO<UserDTO>> findByRolePage(@PathVariable("role") String roleStr,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
+        User.Role role;
+        try {
+            role = User.Role.valueOf(roleStr.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.findByRole(role, cursor, size));
+    }
+
+    // Get users by department id, paginated
+    @GetMapping("/department/{departmentId}/page")
+    public ResponseEntity<CursorPageDTO<UserDTO>> findByDepartmentPage(@PathVariable Long departmentId,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.findByDepartmentId(departmentId, cursor, size));
+    }
+
+    // Get users by school id, paginated
+    @GetMapping("/school/{schoolId}/page")
+    public ResponseEntity<CursorPageDTO<UserDTO>> findBySchoolPage(@PathVariable Long schoolId,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.findBySchoolId(schoolId, cursor, size));
+    }
 }
@@ -0,0 +1,17 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class BroadcastNotificationDTO {
+    private String title;
+    private String message;
+    // Recipients: active users matching every filter given; none means all active users
+    private String role;
+    private Long schoolId;
+    private Long departmentId;
+    // Queue an email as well; it goes out with the next mail round
+    private boolean sendEmail;
+}
@@ -0,0 +1,14 @@
+package com.suza.promotion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResultDTO {
+    private int count; // rows changed
+}
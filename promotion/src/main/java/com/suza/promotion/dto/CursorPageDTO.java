@@ -0,0 +1,15 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;   // null when there are no more rows
+    private boolean hasMore;
+    private int size;
+}
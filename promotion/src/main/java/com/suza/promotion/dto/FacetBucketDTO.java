@@ -0,0 +1,16 @@
+package com.suza.promotion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucketDTO {
+    private String key;     // status name, school/department id, rank or yyyy-MM
+    private String label;
+    private long count;
+}
@@ -0,0 +1,19 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Count for one combination of every facet, so dashboards can cross-tabulate
+ * (e.g. status per school) without another request.
+ */
+@Setter
+@Getter
+public class FacetCellDTO {
+    private String status;
+    private Long schoolId;
+    private Long departmentId;
+    private String appliedRank;
+    private String month;   // yyyy-MM, null for requests not yet submitted
+    private long count;
+}
@@ -0,0 +1,18 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class FacetCountsDTO {
+    private long total;
+    private List<FacetBucketDTO> status;
+    private List<FacetBucketDTO> school;
+    private List<FacetBucketDTO> department;
+    private List<FacetBucketDTO> appliedRank;
+    private List<FacetBucketDTO> month;   // oldest first
+    private List<FacetCellDTO> cells;
+}
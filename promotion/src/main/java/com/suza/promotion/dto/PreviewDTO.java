@@ -0,0 +1,14 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class PreviewDTO {
+    private Long documentId;
+    // READY, PENDING, FAILED or UNAVAILABLE
+    private String status;
+    private String excerpt;
+    private String thumbnailUrl;
+}
@@ -0,0 +1,25 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+public class PromotionRequestExportDTO {
+    private Long id;
+    private String status;
+    private String applicantName;
+    private String employeeId;
+    private String schoolName;
+    private String departmentName;
+    private String currentRank;
+    private String appliedRank;
+    private String justification;
+    private LocalDateTime submissionDate;
+    private LocalDateTime hodReviewDate;
+    private LocalDateTime deanReviewDate;
+    private LocalDateTime dvcDecisionDate;
+    private String finalDecision;
+}
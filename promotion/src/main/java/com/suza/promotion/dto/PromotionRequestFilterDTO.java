@@ -0,0 +1,30 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Query parameters for the combined promotion request search. Every field is
+ * optional; the ones that are set are ANDed together.
+ */
+@Setter
+@Getter
+public class PromotionRequestFilterDTO {
+    private List<String> status;        // any of these statuses
+    private Long schoolId;
+    private Long departmentId;
+    private List<String> appliedRank;   // any of these ranks
+
+    // Submission date range, both ends inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate submittedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate submittedTo;
+
+    private String sort = "id";         // id or submissionDate
+    private String direction = "desc";  // asc or desc
+}
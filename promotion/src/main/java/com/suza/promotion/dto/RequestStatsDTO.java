@@ -0,0 +1,16 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class RequestStatsDTO {
+    private Long schoolId;
+    private Long departmentId;
+    private String status;
+    private String period;              // yyyy-MM
+    private long requestCount;          // currently in this status
+    private long exitedCount;           // have moved on from it
+    private Double averageDaysInStatus; // over the exited ones; null when none have
+}
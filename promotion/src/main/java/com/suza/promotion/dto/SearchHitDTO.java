@@ -0,0 +1,16 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class SearchHitDTO {
+    // request, review or document
+    private String kind;
+    private Long id;
+    private Long requestId;
+    private String title;
+    private String summary;
+    private float score;
+}
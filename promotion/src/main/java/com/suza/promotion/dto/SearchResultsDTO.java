@@ -0,0 +1,16 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class SearchResultsDTO {
+    private String query;
+    private long total;
+    private int page;
+    private int size;
+    private List<SearchHitDTO> hits;
+}
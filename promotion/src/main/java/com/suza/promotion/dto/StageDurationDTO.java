@@ -0,0 +1,21 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Time-in-stage percentiles for one stage. schoolId and departmentId are null
+ * on the university-wide rows, departmentId on the per-school rows.
+ */
+@Setter
+@Getter
+public class StageDurationDTO {
+    private String stage;
+    private Long schoolId;
+    private Long departmentId;
+    private long count;
+    private double p50Hours;
+    private double p90Hours;
+    private double p99Hours;
+    private double maxHours;
+}
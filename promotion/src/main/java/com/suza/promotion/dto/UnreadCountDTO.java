@@ -0,0 +1,15 @@
+package com.suza.promotion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UnreadCountDTO {
+    private Long userId;
+    private long unreadCount;
+}
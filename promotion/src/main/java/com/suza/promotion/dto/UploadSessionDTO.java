@@ -0,0 +1,15 @@
+package com.suza.promotion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class UploadSessionDTO {
+    private String uploadId;
+    private String filename;
+    private Long totalSize;
+    // Bytes received so far, and the offset the next chunk must start at
+    private Long offset;
+    private boolean complete;
+}
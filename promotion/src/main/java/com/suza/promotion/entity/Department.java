@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@NamedEntityGraph(name = "Department.withSchool", attributeNodes = @NamedAttributeNode("school"))
 @Table(name = "departments")
 public class Department {
     @Id
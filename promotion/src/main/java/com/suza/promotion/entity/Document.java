@@ -1,5 +1,6 @@
 package com.suza.promotion.entity;
 
+import com.suza.promotion.event.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,7 +9,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@EntityListeners(SearchIndexListener.class)
+@NamedEntityGraph(name = "Document.withUploader", attributeNodes = @NamedAttributeNode("uploadedBy"))
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_type", columnList = "document_type, id")
+})
 public class Document {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,16 +32,35 @@ public class Document {
     @Column(name = "stored_name", nullable = false)
     private String storedName;
 
+    // Where files stored before the blob store live on disk; for blobs it repeats the storage key
     @NotBlank
     @Column(name = "file_path", nullable = false)
     private String filePath;
 
+    // BlobStorage key of the content; null for files stored before deduplication
+    @Column(name = "storage_key", length = 64)
+    private String storageKey;
+
+    // Shared content blob; null for files stored before deduplication
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stored_file_id")
+    private StoredFile storedFile;
+
+    // Size of the original content, whatever the size on disk
     @Column(name = "file_size")
     private Long fileSize;
 
+    // Codec the file is stored with, e.g. "gzip"; null when stored as uploaded
+    @Column(name = "content_encoding", length = 16)
+    private String contentEncoding;
+
     @Column(name = "content_type")
     private String contentType;
 
+    // Hex SHA-256 of the stored content, used as the download ETag
+    @Column(length = 64)
+    private String checksum;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "document_type")
     private DocumentType documentType;
@@ -83,12 +107,24 @@ public class Document {
     public String getFilePath() { return filePath; }
     public void setFilePath(String filePath) { this.filePath = filePath; }
 
+    public StoredFile getStoredFile() { return storedFile; }
+    public void setStoredFile(StoredFile storedFile) { this.storedFile = storedFile; }
+
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
 
+    public String getContentEncoding() { return contentEncoding; }
+    public void setContentEncoding(String contentEncoding) { this.contentEncoding = contentEncoding; }
+
     public String getContentType() { return contentType; }
     public void setContentType(String contentType) { this.contentType = contentType; }
 
+    public String getStorageKey() { return storageKey; }
+    public void setStorageKey(String storageKey) { this.storageKey = storageKey; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
     public DocumentType getDocumentType() { return documentType; }
     public void setDocumentType(DocumentType documentType) { this.documentType = documentType; }
 
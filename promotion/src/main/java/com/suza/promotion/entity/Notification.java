@@ -8,7 +8,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_type", columnList = "type, id"),
+        @Index(name = "idx_notifications_user_unread", columnList = "user_id, is_read, id"),
+        @Index(name = "idx_notifications_retention", columnList = "is_read, created_at"),
+        @Index(name = "idx_notifications_email_due", columnList = "next_email_attempt_at")
+})
 public class Notification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,6 +46,19 @@ public class Notification {
     @Column(name = "is_email_sent")
     private Boolean isEmailSent = false;
 
+    // Set while an email is queued for this notification; null once sent or given up
+    @Column(name = "next_email_attempt_at")
+    private LocalDateTime nextEmailAttemptAt;
+
+    @Column(name = "email_sent_at")
+    private LocalDateTime emailSentAt;
+
+    @Column(name = "email_attempts", nullable = false)
+    private int emailAttempts;
+
+    @Column(name = "last_email_error", length = 1000)
+    private String lastEmailError;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -92,6 +110,18 @@ public class Notification {
     public Boolean getIsEmailSent() { return isEmailSent; }
     public void setIsEmailSent(Boolean isEmailSent) { this.isEmailSent = isEmailSent; }
 
+    public LocalDateTime getNextEmailAttemptAt() { return nextEmailAttemptAt; }
+    public void setNextEmailAttemptAt(LocalDateTime nextEmailAttemptAt) { this.nextEmailAttemptAt = nextEmailAttemptAt; }
+
+    public LocalDateTime getEmailSentAt() { return emailSentAt; }
+    public void setEmailSentAt(LocalDateTime emailSentAt) { this.emailSentAt = emailSentAt; }
+
+    public int getEmailAttempts() { return emailAttempts; }
+    public void setEmailAttempts(int emailAttempts) { this.emailAttempts = emailAttempts; }
+
+    public String getLastEmailError() { return lastEmailError; }
+    public void setLastEmailError(String lastEmailError) { this.lastEmailError = lastEmailError; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
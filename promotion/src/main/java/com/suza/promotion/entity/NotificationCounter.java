@@ -0,0 +1,30 @@
+package com.suza.promotion.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Unread notifications per user, so the navigation badge is a primary key
+ * lookup. Rows are only changed through NotificationCounterRepository, in the
+ * same transaction as the notifications they count. The user is a plain id so
+ * badge updates never lock the users table.
+ */
+@Entity
+@Table(name = "notification_counters")
+public class NotificationCounter {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+
+    // Constructors
+    public NotificationCounter() {}
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public long getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(long unreadCount) { this.unreadCount = unreadCount; }
+}
@@ -0,0 +1,118 @@
+package com.suza.promotion.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A workflow change waiting to be turned into notifications. Rows are written
+ * in the same transaction as the change itself and drained in the background
+ * by NotificationOutboxService, so nothing is lost if the app stops between
+ * the commit and the notifications going out. The request is a plain id so the
+ * row never blocks deleting it.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_due", columnList = "status, next_attempt_at, id")
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "promotion_request_id", nullable = false)
+    private Long promotionRequestId;
+
+    // The request's status right after the change
+    @Enumerated(EnumType.STRING)
+    @Column(name = "request_status", nullable = false, length = 32)
+    private PromotionRequest.Status requestStatus;
+
+    // Reviewer and decision, for REQUEST_REVIEWED
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private PromotionReview.Decision decision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // Constructors
+    public OutboxEvent() {}
+
+    public OutboxEvent(Type type, PromotionRequest request) {
+        this.type = type;
+        this.promotionRequestId = request.getId();
+        this.requestStatus = request.getStatus();
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getPromotionRequestId() { return promotionRequestId; }
+    public void setPromotionRequestId(Long promotionRequestId) { this.promotionRequestId = promotionRequestId; }
+
+    public PromotionRequest.Status getRequestStatus() { return requestStatus; }
+    public void setRequestStatus(PromotionRequest.Status requestStatus) { this.requestStatus = requestStatus; }
+
+    public Long getActorId() { return actorId; }
+    public void setActorId(Long actorId) { this.actorId = actorId; }
+
+    public PromotionReview.Decision getDecision() { return decision; }
+    public void setDecision(PromotionReview.Decision decision) { this.decision = decision; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+
+    public enum Type {
+        REQUEST_SUBMITTED, REQUEST_REVIEWED
+    }
+
+    public enum Status {
+        PENDING, DONE, FAILED
+    }
+}
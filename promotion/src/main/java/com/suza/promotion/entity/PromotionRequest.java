@@ -1,6 +1,7 @@
 package com.suza.promotion.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.suza.promotion.event.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,7 +13,19 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "promotion_requests")
+@EntityListeners(SearchIndexListener.class)
+@Table(name = "promotion_requests", indexes = {
+        @Index(name = "idx_promotion_requests_status", columnList = "status, id"),
+        // Combined search: equality filters first, then the keyset sort columns
+        @Index(name = "idx_promotion_requests_school_status", columnList = "school_id, status, id"),
+        @Index(name = "idx_promotion_requests_department_status", columnList = "department_id, status, id"),
+        @Index(name = "idx_promotion_requests_status_submitted", columnList = "status, submission_date, id"),
+        @Index(name = "idx_promotion_requests_submitted", columnList = "submission_date, id"),
+        @Index(name = "idx_promotion_requests_applied_rank", columnList = "applied_rank, status, id"),
+        // Covers every facet column, so the dashboard GROUP BY never reads the table rows
+        @Index(name = "idx_promotion_requests_facets",
+                columnList = "status, school_id, department_id, applied_rank, submission_date")
+})
 public class PromotionRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -63,6 +76,10 @@ public class PromotionRequest {
     @Column(name = "final_decision")
     private String finalDecision;
 
+    // When the request entered its current status; drives the stage durations in the stats
+    @Column(name = "status_changed_at")
+    private LocalDateTime statusChangedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -133,6 +150,9 @@ public class PromotionRequest {
     public String getFinalDecision() { return finalDecision; }
     public void setFinalDecision(String finalDecision) { this.finalDecision = finalDecision; }
 
+    public LocalDateTime getStatusChangedAt() { return statusChangedAt; }
+    public void setStatusChangedAt(LocalDateTime statusChangedAt) { this.statusChangedAt = statusChangedAt; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
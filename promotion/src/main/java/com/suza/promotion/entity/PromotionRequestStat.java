@@ -0,0 +1,75 @@
+package com.suza.promotion.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Precomputed report numbers for one school, department, status and month.
+ * Rows are only changed through the upsert in PromotionRequestStatRepository,
+ * in the same transaction as the request they describe. School and department
+ * are plain ids so the table never holds locks on the reference data.
+ */
+@Entity
+@Table(name = "promotion_request_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_promotion_request_stats_group",
+                columnNames = {"school_id", "department_id", "status", "period"})
+}, indexes = {
+        @Index(name = "idx_promotion_request_stats_period", columnList = "period")
+})
+public class PromotionRequestStat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "school_id", nullable = false)
+    private Long schoolId;
+
+    @Column(name = "department_id", nullable = false)
+    private Long departmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private PromotionRequest.Status status;
+
+    // yyyy-MM of the submission date, or of the creation date for drafts
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    // Requests currently in this status
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+
+    // Requests that have moved on from this status, and the time they spent in it
+    @Column(name = "exited_count", nullable = false)
+    private long exitedCount;
+
+    @Column(name = "seconds_in_status", nullable = false)
+    private long secondsInStatus;
+
+    // Constructors
+    public PromotionRequestStat() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getSchoolId() { return schoolId; }
+    public void setSchoolId(Long schoolId) { this.schoolId = schoolId; }
+
+    public Long getDepartmentId() { return departmentId; }
+    public void setDepartmentId(Long departmentId) { this.departmentId = departmentId; }
+
+    public PromotionRequest.Status getStatus() { return status; }
+    public void setStatus(PromotionRequest.Status status) { this.status = status; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public long getRequestCount() { return requestCount; }
+    public void setRequestCount(long requestCount) { this.requestCount = requestCount; }
+
+    public long getExitedCount() { return exitedCount; }
+    public void setExitedCount(long exitedCount) { this.exitedCount = exitedCount; }
+
+    public long getSecondsInStatus() { return secondsInStatus; }
+    public void setSecondsInStatus(long secondsInStatus) { this.secondsInStatus = secondsInStatus; }
+}
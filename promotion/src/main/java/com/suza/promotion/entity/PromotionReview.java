@@ -1,5 +1,6 @@
 package com.suza.promotion.entity;
 
+import com.suza.promotion.event.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,7 +9,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "promotion_reviews")
+@EntityListeners(SearchIndexListener.class)
+@NamedEntityGraph(name = "PromotionReview.withReviewer", attributeNodes = @NamedAttributeNode("reviewer"))
+@Table(name = "promotion_reviews", indexes = {
+        @Index(name = "idx_promotion_reviews_decision", columnList = "decision, id")
+})
 public class PromotionReview {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,74 @@
+package com.suza.promotion.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A content-addressed file on disk, shared by every Document with the same
+ * SHA-256. The file is removed when the last referencing Document goes.
+ */
+@Entity
+@Table(name = "stored_files")
+public class StoredFile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    // BlobStorage key, the same as sha256; rows written before the blob store hold a disk path nobody reads
+    @NotBlank
+    @Column(nullable = false)
+    private String path;
+
+    // Size of the original content; the file itself is smaller when compressed
+    @Column(nullable = false)
+    private Long size;
+
+    // Codec the file is stored with, e.g. "gzip"; null when stored as uploaded
+    @Column(name = "content_encoding", length = 16)
+    private String contentEncoding;
+
+    @Column(name = "reference_count", nullable = false)
+    private Integer referenceCount = 1;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public StoredFile() {}
+
+    public StoredFile(String sha256, String path, Long size) {
+        this.sha256 = sha256;
+        this.path = path;
+        this.size = size;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+
+    public String getContentEncoding() { return contentEncoding; }
+    public void setContentEncoding(String contentEncoding) { this.contentEncoding = contentEncoding; }
+
+    public Integer getReferenceCount() { return referenceCount; }
+    public void setReferenceCount(Integer referenceCount) { this.referenceCount = referenceCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,87 @@
+package com.suza.promotion.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable upload in progress. The bytes received so far live in a part file
+ * named after the id; its length is the offset the next chunk must start at.
+ * Request and uploader are kept as plain ids so an abandoned upload never
+ * blocks deleting either of them.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+        @Index(name = "idx_upload_sessions_updated_at", columnList = "updated_at")
+})
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "promotion_request_id", nullable = false)
+    private Long promotionRequestId;
+
+    @Column(name = "uploaded_by", nullable = false)
+    private Long uploadedById;
+
+    @Column(name = "original_name", nullable = false)
+    private String originalName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false)
+    private Document.DocumentType documentType;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public UploadSession() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getPromotionRequestId() { return promotionRequestId; }
+    public void setPromotionRequestId(Long promotionRequestId) { this.promotionRequestId = promotionRequestId; }
+
+    public Long getUploadedById() { return uploadedById; }
+    public void setUploadedById(Long uploadedById) { this.uploadedById = uploadedById; }
+
+    public String getOriginalName() { return originalName; }
+    public void setOriginalName(String originalName) { this.originalName = originalName; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Document.DocumentType getDocumentType() { return documentType; }
+    public void setDocumentType(Document.DocumentType documentType) { this.documentType = documentType; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,16 @@
+package com.suza.promotion.event;
+
+import com.suza.promotion.entity.Document;
+
+// Published when a Document row is saved; listeners run after the transaction commits
+public class DocumentStoredEvent {
+    private final Document document;
+
+    public DocumentStoredEvent(Document document) {
+        this.document = document;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+}
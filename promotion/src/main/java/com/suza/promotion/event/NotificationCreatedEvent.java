@@ -0,0 +1,22 @@
+package com.suza.promotion.event;
+
+import com.suza.promotion.dto.NotificationDTO;
+
+// Published when a Notification row is saved; pushed to the user's open streams after commit
+public class NotificationCreatedEvent {
+    private final Long userId;
+    private final NotificationDTO notification;
+
+    public NotificationCreatedEvent(Long userId, NotificationDTO notification) {
+        this.userId = userId;
+        this.notification = notification;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public NotificationDTO getNotification() {
+        return notification;
+    }
+}
@@ -0,0 +1,14 @@
+package com.suza.promotion.event;
+
+// Published after a broadcast inserts its rows; every id above afterId may be new to an open stream
+public class NotificationsBroadcastEvent {
+    private final long afterId;
+
+    public NotificationsBroadcastEvent(long afterId) {
+        this.afterId = afterId;
+    }
+
+    public long getAfterId() {
+        return afterId;
+    }
+}
@@ -0,0 +1,52 @@
+package com.suza.promotion.event;
+
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.PromotionReview;
+import com.suza.promotion.services.SearchIndexService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA callback that tells the search index about every saved or deleted row it
+ * covers. The index hears about a change only after the transaction commits, so
+ * rolled-back writes never show up in search results.
+ */
+public class SearchIndexListener {
+    // Looked up on first use: listeners are created while the EntityManagerFactory is still starting
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexService> searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof PromotionRequest request) {
+            queue(SearchIndexService.REQUEST, request.getId());
+        } else if (entity instanceof PromotionReview review) {
+            queue(SearchIndexService.REVIEW, review.getId());
+        } else if (entity instanceof Document document) {
+            queue(SearchIndexService.DOCUMENT, document.getId());
+        }
+    }
+
+    private void queue(String kind, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            searchIndexService.getObject().changed(kind, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                searchIndexService.getObject().changed(kind, id);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.suza.promotion.exception;
+
+// A chunk did not start where the upload left off; the client should resume from currentOffset
+public class UploadOffsetMismatchException extends RuntimeException {
+    private final long currentOffset;
+
+    public UploadOffsetMismatchException(String message, long currentOffset) {
+        super(message);
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
@@ -1,6 +1,7 @@
 package com.suza.promotion.repository;
 
 import com.suza.promotion.entity.Department;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,6 +9,11 @@ import java.util.List;
 
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
+    @Override
+    @EntityGraph("Department.withSchool")
+    List<Department> findAll();
+
+    @EntityGraph("Department.withSchool")
     List<Department> findBySchoolId(Long schoolId);
 
-}
\ No newline at end of file
+}
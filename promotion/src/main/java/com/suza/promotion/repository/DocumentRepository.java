@@ -1,15 +1,50 @@
 package com.suza.promotion.repository;
 
 import com.suza.promotion.entity.Document;
+import com.suza.promotion.repository.projection.DocumentSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+    String SUMMARY_SELECT = "select doc.id as id, doc.originalName as originalName, "
+            + "doc.documentType as documentType, u.fullName as uploaderName "
+            + "from Document doc join doc.uploadedBy u ";
+
+    @EntityGraph("Document.withUploader")
     List<Document> findByPromotionRequestId(Long promotionRequestId);
-    List<Document> findByUploadedById(Long uploadedById);
-    List<Document> findByDocumentType(Document.DocumentType documentType);
 
-}
\ No newline at end of file
+    @Query(SUMMARY_SELECT + "where doc.promotionRequest.id = :promotionRequestId")
+    List<DocumentSummary> findSummariesByPromotionRequestId(@Param("promotionRequestId") Long promotionRequestId);
+    @Query(SUMMARY_SELECT + "where u.id = :uploadedById")
+    List<DocumentSummary> findSummariesByUploadedById(@Param("uploadedById") Long uploadedById);
+    @Query(SUMMARY_SELECT + "where doc.documentType = :documentType")
+    List<DocumentSummary> findSummariesByDocumentType(@Param("documentType") Document.DocumentType documentType);
+
+    // Keyset pages, newest first
+    @Query(SUMMARY_SELECT + "where doc.promotionRequest.id = :promotionRequestId and doc.id < :id order by doc.id desc")
+    List<DocumentSummary> findSummariesByPromotionRequestIdBefore(@Param("promotionRequestId") Long promotionRequestId,
+                                                                  @Param("id") Long id, Limit limit);
+    @Query(SUMMARY_SELECT + "where u.id = :uploadedById and doc.id < :id order by doc.id desc")
+    List<DocumentSummary> findSummariesByUploadedByIdBefore(@Param("uploadedById") Long uploadedById,
+                                                            @Param("id") Long id, Limit limit);
+    @Query(SUMMARY_SELECT + "where doc.documentType = :documentType and doc.id < :id order by doc.id desc")
+    List<DocumentSummary> findSummariesByDocumentTypeBefore(@Param("documentType") Document.DocumentType documentType,
+                                                            @Param("id") Long id, Limit limit);
+
+    // Every id, for rebuilding the search index
+    @Query("select doc.id from Document doc")
+    List<Long> findAllIds();
+
+    // Deduplicated rows saved before storage_key existed are keyed by their stored name, the blob's SHA-256
+    @Modifying
+    @Query("update Document doc set doc.storageKey = doc.storedName where doc.storageKey is null and doc.storedFile is not null")
+    int backfillStorageKeys();
+}
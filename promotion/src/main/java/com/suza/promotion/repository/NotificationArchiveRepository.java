@@ -0,0 +1,28 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.NotificationArchive;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+
+    // Copies the rows in one statement; the caller deletes them from notifications in the same transaction
+    @Modifying
+    @Query(value = "insert into notifications_archive "
+            + "(id, user_id, promotion_request_id, title, message, type, is_read, created_at, read_at, archived_at) "
+            + "select id, user_id, promotion_request_id, title, message, type, is_read, created_at, read_at, :archivedAt "
+            + "from notifications where id in :ids",
+            nativeQuery = true)
+    int copyFromNotifications(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    List<NotificationArchive> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+}
@@ -0,0 +1,44 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+// One row per user holding the unread badge count. Deltas come from the rows a
+// statement actually changed and are clamped at zero; rebuild() recounts from
+// the notifications when the table is new.
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    @Modifying
+    @Query(value = "insert into notification_counters (user_id, unread_count) values (:userId, greatest(:delta, 0)) "
+            + "on duplicate key update unread_count = greatest(unread_count + :delta, 0)",
+            nativeQuery = true)
+    int add(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // Same recipients as NotificationRepository.insertForUsers
+    @Modifying
+    @Query(value = "insert into notification_counters (user_id, unread_count) "
+            + "select u.id, 1 from users u where (u.is_active is null or u.is_active = true) "
+            + "and (:role is null or u.role = :role) "
+            + "and (:schoolId is null or u.school_id = :schoolId) "
+            + "and (:departmentId is null or u.department_id = :departmentId) "
+            + "on duplicate key update unread_count = unread_count + 1",
+            nativeQuery = true)
+    int addOneForUsers(@Param("role") String role, @Param("schoolId") Long schoolId,
+                       @Param("departmentId") Long departmentId);
+
+    @Query("select c.unreadCount from NotificationCounter c where c.userId = :userId")
+    Optional<Long> findUnreadCount(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "insert into notification_counters (user_id, unread_count) "
+            + "select user_id, count(*) from notifications where is_read = false group by user_id",
+            nativeQuery = true)
+    int rebuild();
+}
@@ -2,9 +2,18 @@ package com.suza.promotion.repository;
 
 
 import com.suza.promotion.entity.Notification;
+import com.suza.promotion.repository.projection.NotificationOwner;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +22,90 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     List<Notification> findByType(Notification.NotificationType type);
     List<Notification> findByUserIdAndIsReadFalse(Long userId);
-    
 
-}
\ No newline at end of file
+    // Keyset pages, newest first
+    List<Notification> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+    List<Notification> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+    List<Notification> findByUserIdAndIsReadFalseAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+    List<Notification> findByTypeAndIdLessThanOrderByIdDesc(Notification.NotificationType type, Long id, Limit limit);
+
+    // Queued emails that are due, oldest first, with the recipient loaded
+    @Query("select n from Notification n join fetch n.user "
+            + "where n.isEmailSent = false and n.nextEmailAttemptAt <= :now order by n.nextEmailAttemptAt, n.id")
+    List<Notification> findDueForEmail(@Param("now") LocalDateTime now, Limit limit);
+
+    // Only the caller that actually flips the flag gets 1, so the unread counter is decremented once
+    @Modifying
+    @Query("update Notification n set n.isRead = true, n.readAt = :readAt where n.id = :id and n.isRead = false")
+    int markRead(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("update Notification n set n.isRead = true, n.readAt = :readAt where n.user.id = :userId and n.isRead = false")
+    int markAllRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+
+    // Callers lock the rows first with lockUnreadOwners
+    @Modifying
+    @Query("update Notification n set n.isRead = true, n.readAt = :readAt where n.id in :ids and n.isRead = false")
+    int markRead(@Param("ids") Collection<Long> ids, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("delete from Notification n where n.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Locked so a concurrent markAsRead waits and then finds the rows already read
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select n.id as id, n.user.id as userId from Notification n where n.id in :ids and n.isRead = false")
+    List<NotificationOwner> lockUnreadOwners(@Param("ids") Collection<Long> ids);
+
+    // One SYSTEM_NOTIFICATION row per matching active user; the filters are optional
+    @Modifying
+    @Query(value = "insert into notifications "
+            + "(user_id, title, message, type, is_read, is_email_sent, email_attempts, next_email_attempt_at, created_at) "
+            + "select u.id, :title, :message, 'SYSTEM_NOTIFICATION', false, false, 0, :nextEmailAt, :createdAt "
+            + "from users u where (u.is_active is null or u.is_active = true) "
+            + "and (:role is null or u.role = :role) "
+            + "and (:schoolId is null or u.school_id = :schoolId) "
+            + "and (:departmentId is null or u.department_id = :departmentId)",
+            nativeQuery = true)
+    int insertForUsers(@Param("title") String title, @Param("message") String message,
+                       @Param("nextEmailAt") LocalDateTime nextEmailAt, @Param("createdAt") LocalDateTime createdAt,
+                       @Param("role") String role, @Param("schoolId") Long schoolId,
+                       @Param("departmentId") Long departmentId);
+
+    @Query("select coalesce(max(n.id), 0) from Notification n")
+    long findMaxId();
+
+    // Catch-up for the open streams of several users at once
+    List<Notification> findByUserIdInAndIdGreaterThanOrderByIdAsc(Collection<Long> userIds, Long id);
+
+    // Retention batches, oldest first over idx_notifications_retention
+    @Query("select n.id from Notification n where n.isRead = true and n.createdAt < :before order by n.createdAt, n.id")
+    List<Long> findReadIdsCreatedBefore(@Param("before") LocalDateTime before, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select n.id as id, n.user.id as userId from Notification n "
+            + "where n.isRead = false and n.createdAt < :before order by n.createdAt, n.id")
+    List<NotificationOwner> findUnreadCreatedBefore(@Param("before") LocalDateTime before, Limit limit);
+
+    // One statement per mail batch rather than one per message
+    @Modifying
+    @Query("update Notification n set n.isEmailSent = true, n.emailSentAt = :sentAt, n.nextEmailAttemptAt = null, "
+            + "n.emailAttempts = n.emailAttempts + 1, n.lastEmailError = null where n.id in :ids")
+    int markEmailsSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // next is null when no attempts are left
+    @Modifying
+    @Query("update Notification n set n.nextEmailAttemptAt = :next, n.emailAttempts = n.emailAttempts + 1, "
+            + "n.lastEmailError = :error where n.id = :id")
+    int markEmailFailed(@Param("id") Long id, @Param("next") LocalDateTime next, @Param("error") String error);
+
+    // The server could not be reached: not the messages' fault, so no attempt is counted
+    @Modifying
+    @Query("update Notification n set n.nextEmailAttemptAt = :next, n.lastEmailError = :error where n.id in :ids")
+    int postponeEmails(@Param("ids") Collection<Long> ids, @Param("next") LocalDateTime next,
+                       @Param("error") String error);
+
+    // Replay for a reconnecting notification stream, oldest first
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Limit limit);
+
+}
@@ -0,0 +1,20 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest due events first; served by idx_outbox_events_due
+    @Query("select e.id from OutboxEvent e where e.status = com.suza.promotion.entity.OutboxEvent.Status.PENDING "
+            + "and e.nextAttemptAt <= :now order by e.nextAttemptAt, e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+}
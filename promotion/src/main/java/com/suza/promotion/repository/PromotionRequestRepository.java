@@ -1,16 +1,125 @@
 package com.suza.promotion.repository;
 
 import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.repository.projection.PromotionRequestSummary;
+import com.suza.promotion.repository.projection.StageTimestamps;
+import com.suza.promotion.repository.projection.StatusGroupCount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * List lookups return {@link PromotionRequestSummary} projections: one statement
+ * that joins applicant, department and school and selects only the DTO columns.
+ * Combined filters go through {@link PromotionRequestSearchRepository}.
+ */
 @Repository
-public interface PromotionRequestRepository extends JpaRepository<PromotionRequest, Long> {
-    List<PromotionRequest> findByApplicantId(Long applicantId);
-    List<PromotionRequest> findByStatus(PromotionRequest.Status status);
-    List<PromotionRequest> findByDepartmentId(Long departmentId);
-    List<PromotionRequest> findBySchoolId(Long schoolId);
+public interface PromotionRequestRepository extends JpaRepository<PromotionRequest, Long>,
+        PromotionRequestSearchRepository {
+    String SUMMARY_SELECT = "select r.id as id, r.status as status, r.submissionDate as submissionDate, "
+            + "r.currentRank as currentRank, r.appliedRank as appliedRank, a.fullName as applicantName, "
+            + "d.name as departmentName, s.name as schoolName "
+            + "from PromotionRequest r join r.applicant a join r.department d join r.school s ";
 
-}
\ No newline at end of file
+    // For status changes: the stats deltas are worked out from the status read here,
+    // so a second change to the same request waits until the first has committed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from PromotionRequest r where r.id = :id")
+    Optional<PromotionRequest> findLockedById(@Param("id") Long id);
+
+    @Query(SUMMARY_SELECT + "where a.id = :applicantId")
+    List<PromotionRequestSummary> findSummariesByApplicantId(@Param("applicantId") Long applicantId);
+
+    @Query(SUMMARY_SELECT + "where r.status = :status")
+    List<PromotionRequestSummary> findSummariesByStatus(@Param("status") PromotionRequest.Status status);
+
+    @Query(SUMMARY_SELECT + "where d.id = :departmentId")
+    List<PromotionRequestSummary> findSummariesByDepartmentId(@Param("departmentId") Long departmentId);
+
+    @Query(SUMMARY_SELECT + "where s.id = :schoolId")
+    List<PromotionRequestSummary> findSummariesBySchoolId(@Param("schoolId") Long schoolId);
+
+    // Keyset pages, newest first
+    @Query(SUMMARY_SELECT + "where a.id = :applicantId and r.id < :id order by r.id desc")
+    List<PromotionRequestSummary> findSummariesByApplicantIdBefore(@Param("applicantId") Long applicantId,
+                                                                   @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where r.status = :status and r.id < :id order by r.id desc")
+    List<PromotionRequestSummary> findSummariesByStatusBefore(@Param("status") PromotionRequest.Status status,
+                                                              @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where d.id = :departmentId and r.id < :id order by r.id desc")
+    List<PromotionRequestSummary> findSummariesByDepartmentIdBefore(@Param("departmentId") Long departmentId,
+                                                                    @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where s.id = :schoolId and r.id < :id order by r.id desc")
+    List<PromotionRequestSummary> findSummariesBySchoolIdBefore(@Param("schoolId") Long schoolId,
+                                                                @Param("id") Long id, Limit limit);
+
+    /**
+     * Streams requests for bulk export. Rows are pulled from the driver in batches
+     * of the fetch size (MySQL needs useCursorFetch=true for this), so the caller
+     * must consume the stream inside a transaction and close it.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from PromotionRequest r join fetch r.applicant join fetch r.department join fetch r.school "
+            + "where (:status is null or r.status = :status) "
+            + "and (:schoolId is null or r.school.id = :schoolId) "
+            + "and (:departmentId is null or r.department.id = :departmentId) "
+            + "and (:from is null or r.submissionDate >= :from) "
+            + "and (:to is null or r.submissionDate < :to) "
+            + "order by r.id")
+    Stream<PromotionRequest> streamForExport(@Param("status") PromotionRequest.Status status,
+                                             @Param("schoolId") Long schoolId,
+                                             @Param("departmentId") Long departmentId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to);
+
+    /**
+     * Streams the stage dates of requests that have finished at least their HOD
+     * review, for the stage-duration percentiles. Same batching rules as
+     * {@link #streamForExport}: consume inside a transaction and close it.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r.school.id as schoolId, r.department.id as departmentId, r.submissionDate as submissionDate, "
+            + "r.hodReviewDate as hodReviewDate, r.deanReviewDate as deanReviewDate, "
+            + "r.dvcDecisionDate as dvcDecisionDate from PromotionRequest r "
+            + "where r.submissionDate is not null and r.hodReviewDate is not null "
+            + "and (:schoolId is null or r.school.id = :schoolId) "
+            + "and (:departmentId is null or r.department.id = :departmentId) "
+            + "and (:from is null or r.submissionDate >= :from) "
+            + "and (:to is null or r.submissionDate < :to)")
+    Stream<StageTimestamps> streamStageTimestamps(@Param("schoolId") Long schoolId,
+                                                  @Param("departmentId") Long departmentId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    // Current counts per stats group, for rebuilding promotion_request_stats
+    @Query("select r.school.id as schoolId, r.department.id as departmentId, r.status as status, "
+            + "year(coalesce(r.submissionDate, r.createdAt)) as year, "
+            + "month(coalesce(r.submissionDate, r.createdAt)) as month, count(r) as count "
+            + "from PromotionRequest r group by 1, 2, 3, 4, 5")
+    List<StatusGroupCount> countByStatusGroup();
+
+    // Every id, for rebuilding the search index
+    @Query("select r.id from PromotionRequest r")
+    List<Long> findAllIds();
+}
@@ -0,0 +1,42 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.repository.projection.PromotionRequestSummary;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtered, keyset-paginated summary lookups built with the Criteria API, so any
+ * combination of filters runs as one statement against the composite indexes
+ * on promotion_requests.
+ */
+public interface PromotionRequestSearchRepository {
+
+    enum SortKey { ID, SUBMISSION_DATE }
+
+    /**
+     * Position of the last row of the previous page. submissionDate is only used
+     * when sorting by it.
+     */
+    record Keyset(LocalDateTime submissionDate, Long id) {}
+
+    // One GROUP BY row; year and month are null for requests without a submission date
+    record FacetCount(PromotionRequest.Status status, Long schoolId, Long departmentId, String appliedRank,
+                      Integer year, Integer month, long count) {}
+
+    /**
+     * Returns up to {@code limit} rows matching {@code spec} that come after
+     * {@code after} (null for the first page) in the given order. Sorting by
+     * submission date leaves out requests that have not been submitted.
+     */
+    List<PromotionRequestSummary> findSummaries(Specification<PromotionRequest> spec, SortKey sortKey,
+                                                boolean ascending, Keyset after, int limit);
+
+    /**
+     * Counts the requests matching {@code spec} grouped by status, school,
+     * department, applied rank and submission month, in a single aggregate query.
+     */
+    List<FacetCount> countFacets(Specification<PromotionRequest> spec);
+}
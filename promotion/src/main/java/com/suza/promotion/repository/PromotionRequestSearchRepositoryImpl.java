@@ -0,0 +1,126 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.Department;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.School;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.projection.PromotionRequestSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PromotionRequestSearchRepositoryImpl implements PromotionRequestSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PromotionRequestSummary> findSummaries(Specification<PromotionRequest> spec, SortKey sortKey,
+                                                       boolean ascending, Keyset after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PromotionRequest> root = query.from(PromotionRequest.class);
+        Join<PromotionRequest, User> applicant = root.join("applicant");
+        Join<PromotionRequest, Department> department = root.join("department");
+        Join<PromotionRequest, School> school = root.join("school");
+
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("status").alias("status"),
+                root.get("submissionDate").alias("submissionDate"),
+                root.get("currentRank").alias("currentRank"),
+                root.get("appliedRank").alias("appliedRank"),
+                applicant.get("fullName").alias("applicantName"),
+                department.get("name").alias("departmentName"),
+                school.get("name").alias("schoolName"));
+
+        List<Predicate> where = new ArrayList<>();
+        if (spec != null) {
+            Predicate filters = spec.toPredicate(root, query, cb);
+            if (filters != null) where.add(filters);
+        }
+
+        Path<Long> id = root.get("id");
+        if (sortKey == SortKey.SUBMISSION_DATE) {
+            Path<LocalDateTime> submitted = root.get("submissionDate");
+            where.add(cb.isNotNull(submitted));
+            if (after != null) {
+                // (submitted, id) strictly past the cursor in the sort direction
+                LocalDateTime value = after.submissionDate();
+                where.add(ascending
+                        ? cb.or(cb.greaterThan(submitted, value),
+                                cb.and(cb.equal(submitted, value), cb.greaterThan(id, after.id())))
+                        : cb.or(cb.lessThan(submitted, value),
+                                cb.and(cb.equal(submitted, value), cb.lessThan(id, after.id()))));
+            }
+            query.orderBy(ascending ? cb.asc(submitted) : cb.desc(submitted),
+                    ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            if (after != null) {
+                where.add(ascending ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id()));
+            }
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        }
+        query.where(where.toArray(new Predicate[0]));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .<PromotionRequestSummary>map(SummaryRow::new)
+                .toList();
+    }
+
+    @Override
+    public List<FacetCount> countFacets(Specification<PromotionRequest> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PromotionRequest> root = query.from(PromotionRequest.class);
+
+        // Foreign key columns only, so no join is needed and names are looked up per group
+        Path<PromotionRequest.Status> status = root.get("status");
+        Path<Long> schoolId = root.get("school").get("id");
+        Path<Long> departmentId = root.get("department").get("id");
+        Path<String> appliedRank = root.get("appliedRank");
+        Expression<Integer> year = cb.function("year", Integer.class, root.get("submissionDate"));
+        Expression<Integer> month = cb.function("month", Integer.class, root.get("submissionDate"));
+        Expression<Long> count = cb.count(root);
+
+        query.multiselect(status, schoolId, departmentId, appliedRank, year, month, count);
+        if (spec != null) {
+            Predicate filters = spec.toPredicate(root, query, cb);
+            if (filters != null) query.where(filters);
+        }
+        query.groupBy(status, schoolId, departmentId, appliedRank, year, month);
+
+        return entityManager.createQuery(query)
+                .getResultList()
+                .stream()
+                .map(row -> new FacetCount(row.get(status), row.get(schoolId), row.get(departmentId),
+                        row.get(appliedRank), row.get(year), row.get(month), row.get(count)))
+                .toList();
+    }
+
+    private record SummaryRow(Tuple tuple) implements PromotionRequestSummary {
+        @Override public Long getId() { return tuple.get("id", Long.class); }
+        @Override public PromotionRequest.Status getStatus() { return tuple.get("status", PromotionRequest.Status.class); }
+        @Override public LocalDateTime getSubmissionDate() { return tuple.get("submissionDate", LocalDateTime.class); }
+        @Override public String getCurrentRank() { return tuple.get("currentRank", String.class); }
+        @Override public String getAppliedRank() { return tuple.get("appliedRank", String.class); }
+        @Override public String getApplicantName() { return tuple.get("applicantName", String.class); }
+        @Override public String getDepartmentName() { return tuple.get("departmentName", String.class); }
+        @Override public String getSchoolName() { return tuple.get("schoolName", String.class); }
+    }
+}
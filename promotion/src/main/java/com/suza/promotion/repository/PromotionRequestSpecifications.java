@@ -0,0 +1,47 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.PromotionRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Building blocks for the combined request search. Each one returns null when
+ * its argument is absent so callers can chain them with {@code and} freely.
+ * School and department are compared on the foreign key column, without a join.
+ */
+public final class PromotionRequestSpecifications {
+
+    private PromotionRequestSpecifications() {}
+
+    public static Specification<PromotionRequest> statusIn(Collection<PromotionRequest.Status> statuses) {
+        if (statuses == null || statuses.isEmpty()) return null;
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+
+    public static Specification<PromotionRequest> inSchool(Long schoolId) {
+        if (schoolId == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("school").get("id"), schoolId);
+    }
+
+    public static Specification<PromotionRequest> inDepartment(Long departmentId) {
+        if (departmentId == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("department").get("id"), departmentId);
+    }
+
+    public static Specification<PromotionRequest> appliedRankIn(Collection<String> ranks) {
+        if (ranks == null || ranks.isEmpty()) return null;
+        return (root, query, cb) -> root.get("appliedRank").in(ranks);
+    }
+
+    public static Specification<PromotionRequest> submittedFrom(LocalDateTime from) {
+        if (from == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("submissionDate"), from);
+    }
+
+    public static Specification<PromotionRequest> submittedBefore(LocalDateTime to) {
+        if (to == null) return null;
+        return (root, query, cb) -> cb.lessThan(root.get("submissionDate"), to);
+    }
+}
@@ -0,0 +1,41 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.PromotionRequestStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// Counters are only changed with the single-statement upsert, so concurrent
+// transitions into the same group never lose an update or race on the insert.
+@Repository
+public interface PromotionRequestStatRepository extends JpaRepository<PromotionRequestStat, Long> {
+
+    @Modifying
+    @Query(value = "insert into promotion_request_stats "
+            + "(school_id, department_id, status, period, request_count, exited_count, seconds_in_status) "
+            + "values (:schoolId, :departmentId, :status, :period, :requests, :exited, :seconds) "
+            + "on duplicate key update request_count = request_count + :requests, "
+            + "exited_count = exited_count + :exited, seconds_in_status = seconds_in_status + :seconds",
+            nativeQuery = true)
+    int add(@Param("schoolId") Long schoolId, @Param("departmentId") Long departmentId,
+            @Param("status") String status, @Param("period") String period,
+            @Param("requests") long requests, @Param("exited") long exited, @Param("seconds") long seconds);
+
+    @Query("select s from PromotionRequestStat s "
+            + "where (:schoolId is null or s.schoolId = :schoolId) "
+            + "and (:departmentId is null or s.departmentId = :departmentId) "
+            + "and (:status is null or s.status = :status) "
+            + "and (:from is null or s.period >= :from) "
+            + "and (:to is null or s.period <= :to) "
+            + "order by s.period, s.schoolId, s.departmentId, s.status")
+    List<PromotionRequestStat> findForReport(@Param("schoolId") Long schoolId,
+                                             @Param("departmentId") Long departmentId,
+                                             @Param("status") PromotionRequest.Status status,
+                                             @Param("from") String from,
+                                             @Param("to") String to);
+}
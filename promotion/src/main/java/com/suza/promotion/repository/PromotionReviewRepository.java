@@ -3,16 +3,42 @@ package com.suza.promotion.repository;
 import com.suza.promotion.entity.PromotionRequest;
 import com.suza.promotion.entity.PromotionReview;
 import com.suza.promotion.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+// List lookups fetch the reviewer eagerly. The request is only read for its id,
+// which Hibernate answers from the proxy without a select.
 @Repository
 public interface PromotionReviewRepository extends JpaRepository<PromotionReview, Long> {
+    @Override
+    @EntityGraph("PromotionReview.withReviewer")
+    List<PromotionReview> findAll();
+
+    @EntityGraph("PromotionReview.withReviewer")
     List<PromotionReview> findByReviewer(User reviewer);
+    @EntityGraph("PromotionReview.withReviewer")
     List<PromotionReview> findByPromotionRequest(PromotionRequest request);
+    @EntityGraph("PromotionReview.withReviewer")
     List<PromotionReview> findByDecision(PromotionReview.Decision decision);
     Optional<PromotionReview> findByPromotionRequestAndReviewer(PromotionRequest promotionRequest, User reviewer);
+
+    // Keyset pages, newest first
+    @EntityGraph("PromotionReview.withReviewer")
+    List<PromotionReview> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+    @EntityGraph("PromotionReview.withReviewer")
+    List<PromotionReview> findByReviewerIdAndIdLessThanOrderByIdDesc(Long reviewerId, Long id, Limit limit);
+    @EntityGraph("PromotionReview.withReviewer")
+    List<PromotionReview> findByPromotionRequestIdAndIdLessThanOrderByIdDesc(Long promotionRequestId, Long id, Limit limit);
+    @EntityGraph("PromotionReview.withReviewer")
+    List<PromotionReview> findByDecisionAndIdLessThanOrderByIdDesc(PromotionReview.Decision decision, Long id, Limit limit);
+
+    // Every id, for rebuilding the search index
+    @Query("select r.id from PromotionReview r")
+    List<Long> findAllIds();
 }
@@ -0,0 +1,31 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+// Reference counts are only changed with single UPDATE statements so concurrent
+// uploads and deletes never lose an increment.
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+    Optional<StoredFile> findBySha256(String sha256);
+
+    boolean existsBySha256(String sha256);
+
+    @Modifying
+    @Query("update StoredFile f set f.referenceCount = f.referenceCount + 1 where f.sha256 = :sha256")
+    int incrementReferences(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("update StoredFile f set f.referenceCount = f.referenceCount - 1 where f.id = :id")
+    int decrementReferences(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from StoredFile f where f.id = :id and f.referenceCount <= 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+}
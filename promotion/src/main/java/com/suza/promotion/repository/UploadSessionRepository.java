@@ -0,0 +1,31 @@
+package com.suza.promotion.repository;
+
+import com.suza.promotion.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+
+    // Held by complete and abort until they commit, so only one of them acts on an upload
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UploadSession s where s.id = :id")
+    Optional<UploadSession> findLockedById(@Param("id") String id);
+
+    // Chunks are written outside a transaction; this is the only statement they need
+    @Transactional
+    @Modifying
+    @Query("update UploadSession s set s.updatedAt = :now where s.id = :id")
+    int touch(@Param("id") String id, @Param("now") LocalDateTime now);
+}
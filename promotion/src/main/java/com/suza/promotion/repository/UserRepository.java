@@ -1,7 +1,11 @@
 package com.suza.promotion.repository;
 
 import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.projection.UserSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,13 +13,45 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Department and school are optional, hence the left joins
+    String SUMMARY_SELECT = "select u.id as id, u.fullName as fullName, u.email as email, u.role as role, "
+            + "d.name as departmentName, s.name as schoolName "
+            + "from User u left join u.department d left join u.school s ";
+
     Optional<User> findByEmail(String email);
     
     Boolean existsByEmail(String email);
-    
+
     List<User> findByRole(User.Role role);
+
+    @Query(SUMMARY_SELECT)
+    List<UserSummary> findAllSummaries();
+
+    // Whole table with department and school, for loading the typeahead index
+    @Query("select u from User u left join fetch u.department left join fetch u.school")
+    List<User> findAllWithOrganisation();
+
+    @Query(SUMMARY_SELECT + "where u.role = :role")
+    List<UserSummary> findSummariesByRole(@Param("role") User.Role role);
     
-    List<User> findByDepartmentId(Long departmentId);
+    @Query(SUMMARY_SELECT + "where d.id = :departmentId")
+    List<UserSummary> findSummariesByDepartmentId(@Param("departmentId") Long departmentId);
     
-    List<User> findBySchoolId(Long schoolId);
-}
\ No newline at end of file
+    @Query(SUMMARY_SELECT + "where s.id = :schoolId")
+    List<UserSummary> findSummariesBySchoolId(@Param("schoolId") Long schoolId);
+
+    // Keyset pages, newest first
+    @Query(SUMMARY_SELECT + "where u.id < :id order by u.id desc")
+    List<UserSummary> findSummariesBefore(@Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where u.role = :role and u.id < :id order by u.id desc")
+    List<UserSummary> findSummariesByRoleBefore(@Param("role") User.Role role, @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where d.id = :departmentId and u.id < :id order by u.id desc")
+    List<UserSummary> findSummariesByDepartmentIdBefore(@Param("departmentId") Long departmentId,
+                                                        @Param("id") Long id, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where s.id = :schoolId and u.id < :id order by u.id desc")
+    List<UserSummary> findSummariesBySchoolIdBefore(@Param("schoolId") Long schoolId,
+                                                    @Param("id") Long id, Limit limit);
+}
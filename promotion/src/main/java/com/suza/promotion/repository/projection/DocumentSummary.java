@@ -0,0 +1,14 @@
+package com.suza.promotion.repository.projection;
+
+import com.suza.promotion.entity.Document;
+
+/**
+ * Columns needed for DocumentDTO on list screens. Leaves out the description
+ * TEXT column and the storage details.
+ */
+public interface DocumentSummary {
+    Long getId();
+    String getOriginalName();
+    Document.DocumentType getDocumentType();
+    String getUploaderName();
+}
@@ -0,0 +1,10 @@
+package com.suza.promotion.repository.projection;
+
+/**
+ * A notification id and the user it belongs to, for adjusting unread counters
+ * after bulk changes without loading the rows.
+ */
+public interface NotificationOwner {
+    Long getId();
+    Long getUserId();
+}
@@ -0,0 +1,20 @@
+package com.suza.promotion.repository.projection;
+
+import com.suza.promotion.entity.PromotionRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns needed for PromotionRequestDTO on list screens. Leaves out the
+ * justification TEXT column and the audit timestamps.
+ */
+public interface PromotionRequestSummary {
+    Long getId();
+    PromotionRequest.Status getStatus();
+    LocalDateTime getSubmissionDate();
+    String getCurrentRank();
+    String getAppliedRank();
+    String getApplicantName();
+    String getDepartmentName();
+    String getSchoolName();
+}
@@ -0,0 +1,16 @@
+package com.suza.promotion.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * When a request was submitted and when each approval stage finished; the
+ * later dates are null until the request gets there.
+ */
+public interface StageTimestamps {
+    Long getSchoolId();
+    Long getDepartmentId();
+    LocalDateTime getSubmissionDate();
+    LocalDateTime getHodReviewDate();
+    LocalDateTime getDeanReviewDate();
+    LocalDateTime getDvcDecisionDate();
+}
@@ -0,0 +1,16 @@
+package com.suza.promotion.repository.projection;
+
+import com.suza.promotion.entity.PromotionRequest;
+
+/**
+ * Number of requests in one school, department, status and month. Year and
+ * month come from the submission date, or the creation date for drafts.
+ */
+public interface StatusGroupCount {
+    Long getSchoolId();
+    Long getDepartmentId();
+    PromotionRequest.Status getStatus();
+    Integer getYear();
+    Integer getMonth();
+    Long getCount();
+}
@@ -0,0 +1,15 @@
+package com.suza.promotion.repository.projection;
+
+import com.suza.promotion.entity.User;
+
+/**
+ * Columns needed for UserDTO on list screens.
+ */
+public interface UserSummary {
+    Long getId();
+    String getFullName();
+    String getEmail();
+    User.Role getRole();
+    String getDepartmentName();
+    String getSchoolName();
+}
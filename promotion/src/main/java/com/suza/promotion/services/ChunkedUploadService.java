@@ -0,0 +1,263 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.DocumentDTO;
+import com.suza.promotion.dto.UploadSessionDTO;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.StoredFile;
+import com.suza.promotion.entity.UploadSession;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.exception.UploadOffsetMismatchException;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.UploadSessionRepository;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.storage.BlobStorage;
+import com.suza.promotion.util.TimeOrderedIds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Resumable uploads for files too large for a single multipart request. A client
+ * initiates an upload, PUTs raw byte ranges in order and finally completes it, at
+ * which point the assembled file goes into the content-addressed store. Chunks
+ * are appended straight from the request body to the part file, so nothing is
+ * held in memory or in multipart temp files, and a chunk cut off mid-way keeps
+ * the bytes that arrived: the client asks for the offset and carries on from there.
+ */
+@Service
+public class ChunkedUploadService {
+    private final UploadSessionRepository uploadSessionRepository;
+    private final PromotionRequestRepository promotionRequestRepository;
+    private final UserRepository userRepository;
+    private final StoredFileService storedFileService;
+    private final DocumentService documentService;
+    private final BlobStorage blobStorage;
+
+    @Value("${file.chunked-upload.max-size:2GB}")
+    private DataSize maxSize;
+
+    @Value("${file.chunked-upload.expiry:24h}")
+    private Duration expiry;
+
+    public ChunkedUploadService(UploadSessionRepository uploadSessionRepository,
+                                PromotionRequestRepository promotionRequestRepository,
+                                UserRepository userRepository,
+                                StoredFileService storedFileService,
+                                DocumentService documentService,
+                                BlobStorage blobStorage) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.promotionRequestRepository = promotionRequestRepository;
+        this.userRepository = userRepository;
+        this.storedFileService = storedFileService;
+        this.documentService = documentService;
+        this.blobStorage = blobStorage;
+    }
+
+    public UploadSessionDTO initiate(Long requestId, Long userId, String filename, String contentType,
+                                     String documentType, String description, long totalSize) throws IOException {
+        if (!promotionRequestRepository.existsById(requestId)) {
+            throw new ResourceNotFoundException("Promotion Request not found");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        if (totalSize <= 0 || totalSize > maxSize.toBytes()) {
+            throw new IllegalArgumentException("Upload size must be between 1 byte and " + maxSize);
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(TimeOrderedIds.next().toString());
+        session.setPromotionRequestId(requestId);
+        session.setUploadedById(userId);
+        session.setOriginalName(filename);
+        session.setContentType(contentType);
+        session.setDocumentType(Document.DocumentType.valueOf(documentType));
+        session.setDescription(description);
+        session.setTotalSize(totalSize);
+
+        Files.createFile(partPath(session.getId()));
+        return convertToDTO(uploadSessionRepository.save(session), 0);
+    }
+
+    public UploadSessionDTO getProgress(String uploadId) throws IOException {
+        UploadSession session = getSession(uploadId);
+        return convertToDTO(session, receivedBytes(uploadId));
+    }
+
+    /**
+     * Appends the chunk in {@code content} at {@code offset}, which must equal the
+     * number of bytes received so far. A chunk running past the declared size is
+     * cut back and rejected.
+     */
+    public UploadSessionDTO appendChunk(String uploadId, long offset, InputStream content) throws IOException {
+        UploadSession session = getSession(uploadId);
+        Path part = partPath(uploadId);
+        if (!Files.exists(part)) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+
+        long received;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            FileLock lock = tryLock(channel);
+            if (lock == null) {
+                throw new UploadOffsetMismatchException("Another chunk of this upload is being written", channel.size());
+            }
+            try {
+                received = channel.size();
+                if (offset != received) {
+                    throw new UploadOffsetMismatchException("Expected offset " + received, received);
+                }
+                ReadableByteChannel in = Channels.newChannel(content);
+                long remaining = session.getTotalSize() - received;
+                while (remaining > 0) {
+                    long written = channel.transferFrom(in, received, remaining);
+                    if (written <= 0) break;
+                    received += written;
+                    remaining -= written;
+                }
+                if (remaining == 0 && content.read() != -1) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("Chunk runs past the declared upload size");
+                }
+            } finally {
+                lock.release();
+            }
+        }
+
+        // Keeps an active upload clear of the expiry sweep; 0 rows means it was completed or aborted meanwhile
+        if (uploadSessionRepository.touch(uploadId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Upload not found");
+        }
+        return convertToDTO(session, received);
+    }
+
+    /**
+     * Stores the assembled file and creates its Document. The session row stays
+     * locked until commit, so a second complete waits and then finds the upload
+     * gone. The part file is only removed once the Document has committed; if
+     * anything fails the upload is left as it was and can be completed again.
+     */
+    @Transactional
+    public DocumentDTO complete(String uploadId) throws IOException {
+        UploadSession session = uploadSessionRepository.findLockedById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+        long received = receivedBytes(uploadId);
+        if (received != session.getTotalSize()) {
+            throw new UploadOffsetMismatchException("Upload is incomplete", received);
+        }
+        PromotionRequest request = promotionRequestRepository.findById(session.getPromotionRequestId())
+                .orElseThrow(() -> new ResourceNotFoundException("Promotion Request not found"));
+        User uploadedBy = userRepository.findById(session.getUploadedById())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        Path part = partPath(uploadId);
+        Path snapshot = snapshot(part);
+        StoredFile storedFile;
+        try {
+            storedFile = storedFileService.storeFile(snapshot, session.getContentType());
+        } finally {
+            // Already moved into the store unless storing failed
+            Files.deleteIfExists(snapshot);
+        }
+        uploadSessionRepository.delete(session);
+        DocumentDTO document = documentService.saveDocument(request, uploadedBy, storedFile, session.getOriginalName(),
+                session.getContentType(), session.getDocumentType(), session.getDescription());
+        deletePartAfterCommit(part);
+        return document;
+    }
+
+    @Transactional
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = uploadSessionRepository.findLockedById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+        uploadSessionRepository.delete(session);
+        deletePartAfterCommit(partPath(uploadId));
+    }
+
+    // Uploads left idle past the expiry are dropped along with their part files
+    @Scheduled(fixedDelayString = "${file.chunked-upload.cleanup-interval:1h}",
+            initialDelayString = "${file.chunked-upload.cleanup-interval:1h}")
+    public void purgeExpired() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(expiry);
+        for (UploadSession session : uploadSessionRepository.findByUpdatedAtBefore(cutoff)) {
+            uploadSessionRepository.delete(session);
+            Files.deleteIfExists(partPath(session.getId()));
+        }
+    }
+
+    private UploadSession getSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+    }
+
+    private long receivedBytes(String uploadId) throws IOException {
+        Path part = partPath(uploadId);
+        return Files.exists(part) ? Files.size(part) : 0;
+    }
+
+    private Path partPath(String uploadId) throws IOException {
+        return blobStorage.stagingFile(uploadId);
+    }
+
+    // A second name for the part file, so handing it to the store leaves the part itself in place
+    private Path snapshot(Path part) throws IOException {
+        Path snapshot = blobStorage.createStagingFile();
+        Files.delete(snapshot);
+        try {
+            return Files.createLink(snapshot, part);
+        } catch (UnsupportedOperationException | IOException ex) {
+            return Files.copy(part, snapshot);
+        }
+    }
+
+    private void deletePartAfterCommit(Path part) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                    // an orphaned part file is harmless; nothing refers to it any more
+                }
+            }
+        });
+    }
+
+    // Null when another request is already appending to the same upload
+    private FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            return null;
+        }
+    }
+
+    private UploadSessionDTO convertToDTO(UploadSession session, long received) {
+        UploadSessionDTO dto = new UploadSessionDTO();
+        dto.setUploadId(session.getId());
+        dto.setFilename(session.getOriginalName());
+        dto.setTotalSize(session.getTotalSize());
+        dto.setOffset(received);
+        dto.setComplete(received == session.getTotalSize());
+        return dto;
+    }
+}
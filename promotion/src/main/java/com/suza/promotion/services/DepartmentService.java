@@ -15,10 +15,13 @@ import java.util.stream.Collectors;
 public class DepartmentService {
     private final DepartmentRepository departmentRepository;
     private final SchoolRepository schoolRepository;
+    private final ReferenceDataVersionService referenceDataVersions;
 
-    public DepartmentService(DepartmentRepository departmentRepository, SchoolRepository schoolRepository) {
+    public DepartmentService(DepartmentRepository departmentRepository, SchoolRepository schoolRepository,
+                             ReferenceDataVersionService referenceDataVersions) {
         this.departmentRepository = departmentRepository;
         this.schoolRepository = schoolRepository;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     public DepartmentDTO createDepartment(DepartmentDTO dto) {
@@ -29,7 +32,9 @@ public class DepartmentService {
         dept.setName(dto.getName());
         dept.setSchool(school);
 
-        return convertToDTO(departmentRepository.save(dept));
+        Department saved = departmentRepository.save(dept);
+        referenceDataVersions.departmentsChanged();
+        return convertToDTO(saved);
     }
 
     public List<DepartmentDTO> getAllDepartments() {
@@ -60,13 +65,16 @@ public class DepartmentService {
         dept.setName(dto.getName());
         dept.setSchool(school);
 
-        return convertToDTO(departmentRepository.save(dept));
+        Department saved = departmentRepository.save(dept);
+        referenceDataVersions.departmentsChanged();
+        return convertToDTO(saved);
     }
 
     public void deleteDepartment(Long id) {
         Department dept = departmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Department not found"));
         departmentRepository.delete(dept);
+        referenceDataVersions.departmentsChanged();
     }
 
     private DepartmentDTO convertToDTO(Department dept) {
@@ -1,42 +1,92 @@
 package com.suza.promotion.services;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.DocumentDTO;
 import com.suza.promotion.entity.Document;
 import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.StoredFile;
 import com.suza.promotion.entity.User;
+import com.suza.promotion.event.DocumentStoredEvent;
 import com.suza.promotion.exception.ResourceNotFoundException;
 import com.suza.promotion.repository.DocumentRepository;
 import com.suza.promotion.repository.PromotionRequestRepository;
 import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.repository.projection.DocumentSummary;
+import com.suza.promotion.storage.BlobStorage;
+import com.suza.promotion.util.Checksums;
+import com.suza.promotion.util.ContentTypes;
+import com.suza.promotion.util.CursorUtils;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class DocumentService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
+    private static final int BUFFER_SIZE = 8192;
+    private static final String MISSING_ENTRY = "MISSING.txt";
+    private static final int MAX_TEXT_PAGES = 200;
+
     private final DocumentRepository documentRepository;
     private final PromotionRequestRepository promotionRequestRepository;
     private final UserRepository userRepository;
+    private final StoredFileService storedFileService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlobStorage blobStorage;
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    @Value("${file.stream-upload.max-size:2GB}")
+    private DataSize maxStreamSize;
 
     public DocumentService(DocumentRepository documentRepository,
                            PromotionRequestRepository promotionRequestRepository,
-                           UserRepository userRepository) {
+                           UserRepository userRepository,
+                           StoredFileService storedFileService,
+                           ApplicationEventPublisher eventPublisher,
+                           BlobStorage blobStorage) {
         this.documentRepository = documentRepository;
         this.promotionRequestRepository = promotionRequestRepository;
         this.userRepository = userRepository;
+        this.storedFileService = storedFileService;
+        this.eventPublisher = eventPublisher;
+        this.blobStorage = blobStorage;
     }
 
+    @Transactional
     public DocumentDTO uploadDocument(MultipartFile file, Long requestId, Long userId,
                                       String documentType, String description) throws IOException {
         PromotionRequest request = promotionRequestRepository.findById(requestId)
@@ -44,70 +94,326 @@ public class DocumentService {
         User uploadedBy = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        String storedName = generateStoredName(file.getOriginalFilename());
-        String filePath = uploadDir + File.separator + storedName;
-        File dest = new File(filePath);
+        // Identical content already on disk is shared rather than written again
+        StoredFile storedFile;
+        try (InputStream in = file.getInputStream()) {
+            storedFile = storedFileService.store(in, file.getContentType());
+        }
 
-// Create directories if they don't exist
-        File parentDir = dest.getParentFile();
-        if (!parentDir.exists()) {
-            parentDir.mkdirs(); // Creates necessary folders
+        return saveDocument(request, uploadedBy, storedFile, file.getOriginalFilename(), file.getContentType(),
+                Document.DocumentType.valueOf(documentType), description);
+    }
+
+    /**
+     * Stores a raw request body in one pass: the bytes are hashed and counted on
+     * their way into storage, and the leading ones decide the content type, so
+     * nothing is spooled to a temp file first the way multipart parts are.
+     */
+    @Transactional
+    public DocumentDTO uploadStream(InputStream body, long contentLength, Long requestId, Long userId,
+                                    String filename, String declaredType,
+                                    String documentType, String description) throws IOException {
+        if (contentLength > maxStreamSize.toBytes()) {
+            throw new IllegalArgumentException("Upload exceeds " + maxStreamSize);
         }
+        Document.DocumentType type = Document.DocumentType.valueOf(documentType);
+        PromotionRequest request = promotionRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("Promotion Request not found"));
+        User uploadedBy = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        file.transferTo(dest);
+        byte[] head = new byte[ContentTypes.SNIFF_LENGTH];
+        int headLength = body.readNBytes(head, 0, head.length);
+        String contentType = ContentTypes.sniff(head, headLength, declaredType);
 
+        StoredFile storedFile = storedFileService.store(
+                new SequenceInputStream(new ByteArrayInputStream(head, 0, headLength), body), contentType);
+        return saveDocument(request, uploadedBy, storedFile, filename, contentType, type, description);
+    }
 
+    DocumentDTO saveDocument(PromotionRequest request, User uploadedBy, StoredFile storedFile,
+                             String originalName, String contentType,
+                             Document.DocumentType documentType, String description) {
         Document document = new Document();
         document.setPromotionRequest(request);
-        document.setOriginalName(file.getOriginalFilename());
-        document.setStoredName(storedName);
-        document.setFilePath(filePath);
-        document.setFileSize(file.getSize());
-        document.setContentType(file.getContentType());
-        document.setDocumentType(Document.DocumentType.valueOf(documentType));
+        document.setOriginalName(originalName);
+        document.setStoredName(storedFile.getSha256());
+        document.setStorageKey(storedFile.getSha256());
+        document.setFilePath(storedFile.getSha256());
+        document.setStoredFile(storedFile);
+        document.setFileSize(storedFile.getSize());
+        document.setContentEncoding(storedFile.getContentEncoding());
+        document.setContentType(contentType);
+        document.setChecksum(storedFile.getSha256());
+        document.setDocumentType(documentType);
         document.setDescription(description);
         document.setUploadedBy(uploadedBy);
         document.setUploadedAt(LocalDateTime.now());
 
-        return convertToDTO(documentRepository.save(document));
+        Document saved = documentRepository.save(document);
+        eventPublisher.publishEvent(new DocumentStoredEvent(saved));
+        return convertToDTO(saved);
     }
 
-    public byte[] downloadFile(Long documentId) throws IOException {
-        Document document = documentRepository.findById(documentId)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillStorageKeys() {
+        int updated = documentRepository.backfillStorageKeys();
+        if (updated > 0) {
+            log.info("Set the storage key of {} documents", updated);
+        }
+    }
+
+    public Document getDocument(Long documentId) {
+        return documentRepository.findById(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
-        return Files.readAllBytes(new File(document.getFilePath()).toPath());
+    }
+
+    // Content is read by storage key through BlobStorage. Only documents stored before
+    // deduplication have no key; their file_path is a file on local disk.
+
+    public boolean hasContent(Document document) {
+        String key = document.getStorageKey();
+        return key != null ? blobStorage.exists(key) : Files.isRegularFile(legacyFile(document));
+    }
+
+    // Size of the content as stored, which is compressed for gzip-encoded documents
+    public long storedSize(Document document) throws IOException {
+        if (!hasContent(document)) {
+            throw new ResourceNotFoundException("Document file not found");
+        }
+        String key = document.getStorageKey();
+        return key != null ? blobStorage.size(key) : Files.size(legacyFile(document));
+    }
+
+    // The content as stored; callers stream it rather than loading it into memory
+    public InputStream openStored(Document document) throws IOException {
+        String key = document.getStorageKey();
+        return key != null ? blobStorage.open(key) : Files.newInputStream(legacyFile(document));
+    }
+
+    // The stored content as a local file, when the storage has one, for zero-copy sends
+    public Optional<Path> localFile(Document document) {
+        String key = document.getStorageKey();
+        if (key != null) {
+            return blobStorage.resolve(key);
+        }
+        Path path = legacyFile(document);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path legacyFile(Document document) {
+        return Paths.get(document.getFilePath());
+    }
+
+    // The original content, inflated on the fly if it is stored compressed
+    public InputStream openContent(Document document) throws IOException {
+        InputStream in = openStored(document);
+        if (StoredFileService.GZIP.equals(document.getContentEncoding())) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return in;
+    }
+
+    /**
+     * A plain file holding the original content, for libraries that need random
+     * access such as PDF parsers. That is the stored file itself when it is local
+     * and uncompressed; otherwise the content is copied to a staging file, which
+     * closing the result deletes.
+     */
+    public DecodedFile decodedFile(Document document) throws IOException {
+        if (document.getContentEncoding() == null) {
+            Optional<Path> local = localFile(document);
+            if (local.isPresent()) {
+                return new DecodedFile(local.get(), false);
+            }
+        }
+        Path copy = blobStorage.createStagingFile();
+        try (InputStream in = openContent(document)) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            Files.deleteIfExists(copy);
+            throw ex;
+        }
+        return new DecodedFile(copy, true);
+    }
+
+    public record DecodedFile(Path path, boolean temporary) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Text of a PDF or plain-text document, cut off at {@code maxChars}; empty for
+     * other formats. Read with a bounded buffer, so large files are fine.
+     */
+    public String extractText(Document document, int maxChars) throws IOException {
+        String type = document.getContentType();
+        if (!hasContent(document)) {
+            throw new ResourceNotFoundException("Document file not found");
+        }
+        if ("application/pdf".equals(type)) {
+            try (DecodedFile file = decodedFile(document);
+                 PDDocument pdf = Loader.loadPDF(file.path().toFile())) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setEndPage(MAX_TEXT_PAGES);
+                String text = stripper.getText(pdf);
+                return text.length() > maxChars ? text.substring(0, maxChars) : text;
+            }
+        }
+        if (type != null && type.startsWith("text/")) {
+            try (Reader reader = new InputStreamReader(openContent(document), StandardCharsets.UTF_8)) {
+                StringBuilder text = new StringBuilder();
+                char[] buffer = new char[BUFFER_SIZE];
+                int read;
+                while (text.length() < maxChars
+                        && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - text.length()))) != -1) {
+                    text.append(buffer, 0, read);
+                }
+                return text.toString();
+            }
+        }
+        return "";
+    }
+
+    // Size of the original content
+    public long contentLength(Document document) throws IOException {
+        return document.getContentEncoding() != null ? document.getFileSize() : storedSize(document);
+    }
+
+    // Documents stored before checksums existed are hashed once, on first use
+    public String getChecksum(Document document) throws IOException {
+        if (document.getChecksum() == null) {
+            try (InputStream in = openStored(document)) {
+                document.setChecksum(Checksums.sha256Hex(in));
+            }
+            documentRepository.save(document);
+        }
+        return document.getChecksum();
+    }
+
+    /**
+     * Writes every document of a request to {@code out} as a ZIP archive, compressing
+     * on the fly through a fixed-size buffer. Documents whose content is missing are
+     * left out and listed in a {@value #MISSING_ENTRY} entry at the end of the archive.
+     */
+    public void writeRequestBundle(Long requestId, OutputStream out) throws IOException {
+        if (!promotionRequestRepository.existsById(requestId)) {
+            throw new ResourceNotFoundException("Promotion Request not found");
+        }
+        List<Document> documents = documentRepository.findByPromotionRequestId(requestId);
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Most attachments (PDF, DOCX, images) are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+        Set<String> usedNames = new HashSet<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        List<String> missing = new ArrayList<>();
+        for (Document document : documents) {
+            if (!hasContent(document)) {
+                log.warn("Content of document {} ({}) is missing, leaving it out of the bundle of request {}",
+                        document.getId(), document.getOriginalName(), requestId);
+                missing.add(document.getOriginalName());
+                continue;
+            }
+            ZipEntry entry = new ZipEntry(uniqueEntryName(document.getOriginalName(), usedNames));
+            entry.setSize(contentLength(document));
+            zip.putNextEntry(entry);
+            try (InputStream in = openContent(document)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    zip.write(buffer, 0, read);
+                }
+            }
+            zip.closeEntry();
+        }
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry(uniqueEntryName(MISSING_ENTRY, usedNames)));
+            zip.write(("These documents could not be found in storage:\n" + String.join("\n", missing) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    // "cv.pdf", "cv (2).pdf", ... so files with the same name do not collide in the archive
+    private String uniqueEntryName(String originalName, Set<String> usedNames) {
+        String name = originalName.replace('\\', '_').replace('/', '_');
+        if (usedNames.add(name)) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + " (" + i + ")" + extension;
+            if (usedNames.add(candidate)) {
+                return candidate;
+            }
+        }
     }
 
     public List<DocumentDTO> getDocumentsByRequest(Long requestId) {
-        return documentRepository.findByPromotionRequestId(requestId).stream()
+        return documentRepository.findSummariesByPromotionRequestId(requestId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<DocumentDTO> getDocumentsByUploader(Long userId) {
-        return documentRepository.findByUploadedById(userId).stream()
+        return documentRepository.findSummariesByUploadedById(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<DocumentDTO> getDocumentsByType(String documentType) {
-        return documentRepository.findByDocumentType(Document.DocumentType.valueOf(documentType)).stream()
+        return documentRepository.findSummariesByDocumentType(Document.DocumentType.valueOf(documentType)).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    public CursorPageDTO<DocumentDTO> getDocumentsByRequest(Long requestId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<DocumentSummary> rows = documentRepository.findSummariesByPromotionRequestIdBefore(
+                requestId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, DocumentSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<DocumentDTO> getDocumentsByUploader(Long userId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<DocumentSummary> rows = documentRepository.findSummariesByUploadedByIdBefore(
+                userId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, DocumentSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<DocumentDTO> getDocumentsByType(String documentType, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<DocumentSummary> rows = documentRepository.findSummariesByDocumentTypeBefore(
+                Document.DocumentType.valueOf(documentType), CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, DocumentSummary::getId, this::convertToDTO);
+    }
+
+    @Transactional
     public void deleteDocument(Long id) {
         Document doc = documentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
 
-        File file = new File(doc.getFilePath());
-        if (file.exists()) file.delete();
+        StoredFile storedFile = doc.getStoredFile();
+        if (storedFile == null) {
+            // Stored before deduplication: the file belongs to this row alone
+            File file = new File(doc.getFilePath());
+            if (file.exists()) file.delete();
+        }
 
         documentRepository.delete(doc);
-    }
-
-    private String generateStoredName(String originalName) {
-        return System.currentTimeMillis() + "_" + originalName.replaceAll("\\s+", "_");
+        if (storedFile != null) {
+            documentRepository.flush();
+            storedFileService.release(storedFile);
+        }
     }
 
     private DocumentDTO convertToDTO(Document document) {
@@ -118,4 +424,13 @@ public class DocumentService {
         dto.setUploaderName(document.getUploadedBy().getFullName());
         return dto;
     }
+
+    private DocumentDTO convertToDTO(DocumentSummary summary) {
+        DocumentDTO dto = new DocumentDTO();
+        dto.setId(summary.getId());
+        dto.setFilename(summary.getOriginalName());
+        dto.setType(summary.getDocumentType().name());
+        dto.setUploaderName(summary.getUploaderName());
+        return dto;
+    }
 }
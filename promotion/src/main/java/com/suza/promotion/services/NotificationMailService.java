@@ -0,0 +1,313 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.repository.NotificationRepository;
+import com.suza.promotion.util.Backoff;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mail worker for the emails queued on notifications (next_email_attempt_at
+ * set, is_email_sent false). Due rows are pulled in batches and sent over one
+ * SMTP connection that is kept open for the whole round, at no more than
+ * notifications.mail.rate messages a second, so a decision day with hundreds
+ * of recipients costs a handful of SMTP sessions rather than one per email.
+ * Sent rows are marked with one UPDATE per batch; failures are recorded per
+ * row and retried with backoff, except 5xx replies and messages that cannot
+ * be built (a malformed address), which are final. When the server cannot be
+ * reached at all the rest of the batch is postponed without using up attempts.
+ * Nothing is sent while spring.mail.host is unset; the queue waits until mail
+ * is configured.
+ */
+@Service
+public class NotificationMailService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationMailService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final ObjectProvider<JavaMailSenderImpl> mailSender;
+    private final TransactionTemplate transaction;
+
+    private final ThreadPoolTaskExecutor worker;
+    private final AtomicBoolean roundQueued = new AtomicBoolean();
+
+    @Value("${notifications.mail.from:no-reply@suza.ac.tz}")
+    private String from;
+
+    @Value("${notifications.mail.batch-size:50}")
+    private int batchSize;
+
+    // Messages per second; 0 or less means no limit
+    @Value("${notifications.mail.rate:10}")
+    private double rate;
+
+    // Reconnect after this many messages; many servers cap a session
+    @Value("${notifications.mail.messages-per-connection:100}")
+    private int messagesPerConnection;
+
+    @Value("${notifications.mail.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notifications.mail.retry.initial-delay:1m}")
+    private Duration initialDelay;
+
+    @Value("${notifications.mail.retry.max-delay:2h}")
+    private Duration maxDelay;
+
+    public NotificationMailService(NotificationRepository notificationRepository,
+                                   ObjectProvider<JavaMailSenderImpl> mailSender,
+                                   PlatformTransactionManager transactionManager,
+                                   ThreadPoolTaskExecutor mailWorkerExecutor) {
+        this.notificationRepository = notificationRepository;
+        this.mailSender = mailSender;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.worker = mailWorkerExecutor;
+    }
+
+    // Retries come due on their own schedule, so the worker also looks on a timer
+    @Scheduled(fixedDelayString = "${notifications.mail.poll-interval:30s}")
+    public void poll() {
+        wake();
+    }
+
+    // Called by the outbox dispatcher once it has queued new emails
+    public void wake() {
+        if (mailSender.getIfAvailable() == null) {
+            return;
+        }
+        if (roundQueued.compareAndSet(false, true)) {
+            try {
+                worker.execute(() -> {
+                    roundQueued.set(false);
+                    try {
+                        sendDue();
+                    } catch (RuntimeException ex) {
+                        log.error("Mail round failed", ex);
+                    }
+                });
+            } catch (TaskRejectedException ex) {
+                // Shutting down; the rows stay due for the next start
+                roundQueued.set(false);
+                log.debug("Mail round rejected: {}", ex.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        // Lets a running round finish and record what it sent
+        worker.shutdown();
+    }
+
+    private void sendDue() {
+        JavaMailSenderImpl sender = mailSender.getIfAvailable();
+        try (Connection connection = new Connection(sender)) {
+            List<Notification> due;
+            do {
+                due = transaction.execute(status ->
+                        notificationRepository.findDueForEmail(LocalDateTime.now(), Limit.of(batchSize)));
+                if (!sendBatch(connection, due)) {
+                    return; // server unreachable; the rows are rescheduled and the next round tries again
+                }
+            } while (due.size() == batchSize);
+        }
+    }
+
+    // Returns false when the server could not be reached at all
+    private boolean sendBatch(Connection connection, List<Notification> batch) {
+        List<Long> sent = new ArrayList<>(batch.size());
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Notification notification = batch.get(i);
+                MimeMessage message;
+                try {
+                    message = message(connection, notification);
+                } catch (MessagingException ex) {
+                    // A malformed address or header; the connection is fine and a retry builds the same message
+                    failed(notification, ex, true);
+                    continue;
+                }
+                try {
+                    connection.send(message);
+                    sent.add(notification.getId());
+                } catch (SendFailedException ex) {
+                    // Refused by the server; the session itself stays usable unless the server hung up
+                    connection.resetIfClosed();
+                    failed(notification, ex, isPermanent(ex));
+                } catch (MessagingException ex) {
+                    connection.reset();
+                    if (!connection.isUsable()) {
+                        postponed(batch.subList(i, batch.size()), ex);
+                        return false;
+                    }
+                    failed(notification, ex, false);
+                }
+            }
+            return true;
+        } finally {
+            if (!sent.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                transaction.executeWithoutResult(status -> notificationRepository.markEmailsSent(sent, now));
+            }
+        }
+    }
+
+    /**
+     * Whether a refusal is final. SMTP reply codes say so: 5xx is permanent, 4xx
+     * (mailbox busy, greylisting, over quota) is worth another attempt. The code
+     * is on the exception itself or, for refused recipients, on the next ones.
+     */
+    static boolean isPermanent(SendFailedException ex) {
+        for (Exception e = ex; e != null; e = e instanceof MessagingException m ? m.getNextException() : null) {
+            int code = returnCode(e);
+            if (code > 0) {
+                return code >= 500;
+            }
+        }
+        // No reply at all: addresses the client rejected itself
+        return ex.getInvalidAddresses() != null && ex.getInvalidAddresses().length > 0;
+    }
+
+    private static int returnCode(Exception ex) {
+        if (ex instanceof SMTPSendFailedException failed) return failed.getReturnCode();
+        if (ex instanceof SMTPAddressFailedException failed) return failed.getReturnCode();
+        if (ex instanceof SMTPSenderFailedException failed) return failed.getReturnCode();
+        return -1;
+    }
+
+    private MimeMessage message(Connection connection, Notification notification) throws MessagingException {
+        MimeMessage message = new MimeMessage(connection.sender.getSession());
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(notification.getUser().getEmail());
+        helper.setSubject(notification.getTitle());
+        helper.setText(notification.getMessage());
+        message.saveChanges();
+        return message;
+    }
+
+    private void failed(Notification notification, MessagingException ex, boolean permanent) {
+        int attempts = notification.getEmailAttempts() + 1;
+        LocalDateTime next = permanent || attempts >= maxAttempts ? null
+                : LocalDateTime.now().plus(Backoff.delay(attempts, initialDelay, maxDelay));
+        String error = truncate(String.valueOf(ex.getMessage()));
+        transaction.executeWithoutResult(status -> notificationRepository.markEmailFailed(
+                notification.getId(), next, error));
+        log.warn("Email for notification {} failed (attempt {}{}): {}", notification.getId(), attempts,
+                next == null ? ", giving up" : "", ex.getMessage());
+    }
+
+    // Tried again after the initial delay, keeping their attempt counts
+    private void postponed(List<Notification> rest, MessagingException ex) {
+        List<Long> ids = rest.stream().map(Notification::getId).toList();
+        LocalDateTime next = LocalDateTime.now().plus(initialDelay);
+        String error = truncate(String.valueOf(ex.getMessage()));
+        transaction.executeWithoutResult(status -> notificationRepository.postponeEmails(ids, next, error));
+        log.warn("Mail server unreachable, postponing {} emails until {}: {}", ids.size(), next, ex.getMessage());
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+
+    /**
+     * One SMTP session, opened lazily, reopened after messagesPerConnection
+     * sends or an error, and paced to the configured rate.
+     */
+    private final class Connection implements AutoCloseable {
+        private final JavaMailSenderImpl sender;
+        private final long nanosPerMessage;
+        private Transport transport;
+        private int sentOnTransport;
+        private long nextSendAt = System.nanoTime();
+        private boolean usable = true;
+
+        Connection(JavaMailSenderImpl sender) {
+            this.sender = sender;
+            this.nanosPerMessage = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+        }
+
+        void send(MimeMessage message) throws MessagingException {
+            pace();
+            if (transport == null || sentOnTransport >= messagesPerConnection) {
+                reset();
+                transport = sender.getSession().getTransport(sender.getProtocol());
+                try {
+                    transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+                } catch (MessagingException ex) {
+                    transport = null;
+                    usable = false;
+                    throw ex;
+                }
+                sentOnTransport = 0;
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+            sentOnTransport++;
+        }
+
+        boolean isUsable() {
+            return usable;
+        }
+
+        // A 421 reply comes with the server closing the session
+        void resetIfClosed() {
+            if (transport != null && !transport.isConnected()) {
+                reset();
+            }
+        }
+
+        void reset() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException ex) {
+                    log.debug("Closing SMTP connection failed: {}", ex.getMessage());
+                }
+                transport = null;
+            }
+        }
+
+        private void pace() {
+            if (nanosPerMessage == 0) return;
+            long wait = nextSendAt - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            nextSendAt = Math.max(nextSendAt, System.nanoTime() - nanosPerMessage) + nanosPerMessage;
+        }
+
+        @Override
+        public void close() {
+            reset();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.entity.Notification.NotificationType;
+import com.suza.promotion.entity.OutboxEvent;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.PromotionReview;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.OutboxEventRepository;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.util.Backoff;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transactional outbox for workflow notifications. Status changes record an
+ * {@link OutboxEvent} in their own transaction and return; a background thread
+ * drains due events in batches, fans each one out into Notification rows for
+ * the applicant and the next reviewer, and then hands the queued emails to
+ * {@link NotificationMailService}. An event whose fan-out fails is retried
+ * with exponential backoff and marked FAILED after the last attempt.
+ */
+@Service
+public class NotificationOutboxService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PromotionRequestRepository promotionRequestRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final NotificationMailService mailService;
+    private final TransactionTemplate transaction;
+
+    private final ThreadPoolTaskExecutor dispatcher;
+    // At most one drain waiting to run; more wake-ups while it waits are folded into it
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry.initial-delay:30s}")
+    private Duration initialDelay;
+
+    @Value("${outbox.retry.max-delay:1h}")
+    private Duration maxDelay;
+
+    public NotificationOutboxService(OutboxEventRepository outboxEventRepository,
+                                     PromotionRequestRepository promotionRequestRepository,
+                                     UserRepository userRepository,
+                                     NotificationService notificationService,
+                                     NotificationMailService mailService,
+                                     PlatformTransactionManager transactionManager,
+                                     ThreadPoolTaskExecutor outboxDispatchExecutor) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.promotionRequestRepository = promotionRequestRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.mailService = mailService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.dispatcher = outboxDispatchExecutor;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestSubmitted(PromotionRequest request) {
+        record(new OutboxEvent(OutboxEvent.Type.REQUEST_SUBMITTED, request));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void requestReviewed(PromotionRequest request, User reviewer, PromotionReview.Decision decision) {
+        OutboxEvent event = new OutboxEvent(OutboxEvent.Type.REQUEST_REVIEWED, request);
+        event.setActorId(reviewer.getId());
+        event.setDecision(decision);
+        record(event);
+    }
+
+    // Picks up retries that have come due and anything a missed wake-up left behind
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:10s}")
+    public void poll() {
+        wake();
+    }
+
+    public void wake() {
+        if (drainQueued.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> {
+                    drainQueued.set(false);
+                    drain();
+                });
+            } catch (TaskRejectedException ex) {
+                // Shutting down; the events stay due and the next start drains them
+                drainQueued.set(false);
+                log.debug("Outbox drain rejected: {}", ex.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        // Lets a running drain finish while the repositories are still there
+        dispatcher.shutdown();
+    }
+
+    private void record(OutboxEvent event) {
+        outboxEventRepository.save(event);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wake();
+            }
+        });
+    }
+
+    private void drain() {
+        try {
+            List<Long> due;
+            do {
+                due = transaction.execute(status -> outboxEventRepository.findDueIds(LocalDateTime.now(), Limit.of(batchSize)));
+                due.forEach(this::dispatch);
+            } while (due.size() == batchSize);
+            mailService.wake();
+        } catch (RuntimeException ex) {
+            log.error("Outbox drain failed", ex);
+        }
+    }
+
+    private void dispatch(Long eventId) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+                if (event == null || event.getStatus() != OutboxEvent.Status.PENDING) return;
+                fanOut(event);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setStatus(OutboxEvent.Status.DONE);
+                event.setProcessedAt(LocalDateTime.now());
+                event.setLastError(null);
+            });
+        } catch (RuntimeException ex) {
+            transaction.executeWithoutResult(status -> outboxEventRepository.findById(eventId).ifPresent(event -> {
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setLastError(truncate(String.valueOf(ex.getMessage())));
+                if (attempts >= maxAttempts) {
+                    event.setStatus(OutboxEvent.Status.FAILED);
+                    log.error("Outbox event {} failed after {} attempts", eventId, attempts, ex);
+                } else {
+                    event.setNextAttemptAt(LocalDateTime.now().plus(Backoff.delay(attempts, initialDelay, maxDelay)));
+                    log.warn("Outbox event {} failed (attempt {}), will retry: {}", eventId, attempts, ex.getMessage());
+                }
+            }));
+        }
+    }
+
+    // Runs in the event's transaction, so the notifications and the DONE mark commit together
+    private void fanOut(OutboxEvent event) {
+        PromotionRequest request = promotionRequestRepository.findById(event.getPromotionRequestId()).orElse(null);
+        if (request == null) {
+            return; // deleted since; nobody left to tell
+        }
+        User applicant = request.getApplicant();
+        String rank = request.getAppliedRank();
+
+        if (event.getType() == OutboxEvent.Type.REQUEST_SUBMITTED) {
+            notify(applicant, request, NotificationType.APPLICATION_SUBMITTED, "Application submitted",
+                    "Your application for promotion to " + rank + " has been submitted for review.");
+            notifyReviewer(request.getDepartment().getHeadOfDepartment(), request);
+            return;
+        }
+
+        switch (event.getRequestStatus()) {
+            case APPROVED -> notify(applicant, request, NotificationType.APPLICATION_APPROVED, "Application approved",
+                    "Your application for promotion to " + rank + " has been approved.");
+            case REJECTED -> notify(applicant, request, NotificationType.APPLICATION_REJECTED, "Application rejected",
+                    "Your application for promotion to " + rank + " was not approved.");
+            case UNDER_DEAN_REVIEW -> {
+                notify(applicant, request, NotificationType.APPLICATION_REVIEWED, "Application forwarded",
+                        "Your application for promotion to " + rank + " has been forwarded to the Dean.");
+                notifyReviewer(request.getSchool().getDean(), request);
+            }
+            case UNDER_DVC_REVIEW -> {
+                notify(applicant, request, NotificationType.APPLICATION_REVIEWED, "Application forwarded",
+                        "Your application for promotion to " + rank + " has been forwarded to the DVC.");
+                userRepository.findByRole(User.Role.DVC).forEach(dvc -> notifyReviewer(dvc, request));
+            }
+            default -> notify(applicant, request, NotificationType.APPLICATION_REVIEWED, "Application reviewed",
+                    "Your application for promotion to " + rank + " has received a review.");
+        }
+    }
+
+    private void notifyReviewer(User reviewer, PromotionRequest request) {
+        if (reviewer == null) {
+            return;
+        }
+        notify(reviewer, request, NotificationType.APPLICATION_SUBMITTED, "Application awaiting your review",
+                request.getApplicant().getFullName() + " has applied for promotion to "
+                        + request.getAppliedRank() + ".");
+    }
+
+    private void notify(User user, PromotionRequest request, NotificationType type, String title, String message) {
+        notificationService.notifyUser(user, request, type, title, message);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
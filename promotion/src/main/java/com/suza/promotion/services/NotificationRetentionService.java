@@ -0,0 +1,146 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.repository.NotificationArchiveRepository;
+import com.suza.promotion.repository.NotificationRepository;
+import com.suza.promotion.repository.projection.NotificationOwner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the notifications table small. Read notifications go after
+ * notifications.retention.read-days and everything after max-days; with
+ * notifications.retention.archive on they are copied to notifications_archive
+ * first. Rows are removed oldest first in batches of batch-size, each in its
+ * own short transaction with a pause in between, so the job never holds long
+ * locks or floods replicas with one huge delete. The scheduled run happens on
+ * its own thread, so the pauses never hold up other scheduled jobs. A value of
+ * 0 days turns that rule off.
+ */
+@Service
+public class NotificationRetentionService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiveRepository archiveRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolTaskExecutor purger;
+
+    @Value("${notifications.retention.read-days:90}")
+    private int readDays;
+
+    @Value("${notifications.retention.max-days:365}")
+    private int maxDays;
+
+    @Value("${notifications.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notifications.retention.batch-pause:200ms}")
+    private Duration batchPause;
+
+    @Value("${notifications.retention.archive:false}")
+    private boolean archive;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        NotificationArchiveRepository archiveRepository,
+                                        NotificationService notificationService,
+                                        PlatformTransactionManager transactionManager,
+                                        ThreadPoolTaskExecutor notificationRetentionExecutor) {
+        this.notificationRepository = notificationRepository;
+        this.archiveRepository = archiveRepository;
+        this.notificationService = notificationService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.purger = notificationRetentionExecutor;
+    }
+
+    public record PurgeResult(long read, long unread) {}
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 2 * * *}")
+    public void scheduledPurge() {
+        try {
+            purger.execute(this::runPurge);
+        } catch (TaskRejectedException ex) {
+            log.warn("Notification retention skipped: the previous run is still going");
+        }
+    }
+
+    private void runPurge() {
+        try {
+            PurgeResult result = purge(LocalDateTime.now());
+            if (result.read() + result.unread() > 0) {
+                log.info("Notification retention {} {} read and {} unread notifications",
+                        archive ? "archived" : "deleted", result.read(), result.unread());
+            }
+        } catch (RuntimeException ex) {
+            log.error("Notification retention failed", ex);
+        }
+    }
+
+    public PurgeResult purge(LocalDateTime now) {
+        LocalDateTime allBefore = maxDays > 0 ? now.minusDays(maxDays) : null;
+        LocalDateTime readCutoff = readDays > 0 ? now.minusDays(readDays) : null;
+        // Read rows fall under whichever rule removes more of them
+        LocalDateTime readBefore = allBefore != null && (readCutoff == null || allBefore.isAfter(readCutoff))
+                ? allBefore : readCutoff;
+
+        long read = readBefore == null ? 0 : inBatches(() -> purgeRead(readBefore, now));
+        long unread = allBefore == null ? 0 : inBatches(() -> purgeUnread(allBefore, now));
+        return new PurgeResult(read, unread);
+    }
+
+    private int purgeRead(LocalDateTime before, LocalDateTime now) {
+        List<Long> ids = notificationRepository.findReadIdsCreatedBefore(before, Limit.of(batchSize));
+        remove(ids, now);
+        return ids.size();
+    }
+
+    // Unread rows are locked by the select, so counters are decremented exactly once
+    private int purgeUnread(LocalDateTime before, LocalDateTime now) {
+        List<NotificationOwner> owners = notificationRepository.findUnreadCreatedBefore(before, Limit.of(batchSize));
+        remove(owners.stream().map(NotificationOwner::getId).collect(Collectors.toList()), now);
+        notificationService.decrementUnread(owners);
+        return owners.size();
+    }
+
+    private void remove(Collection<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (archive) {
+            archiveRepository.copyFromNotifications(ids, now);
+        }
+        notificationRepository.deleteByIdIn(ids);
+    }
+
+    private long inBatches(IntSupplier batch) {
+        long total = 0;
+        while (true) {
+            int removed = transaction.execute(status -> batch.getAsInt());
+            total += removed;
+            if (removed < batchSize) {
+                return total;
+            }
+            try {
+                Thread.sleep(batchPause.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+    }
+}
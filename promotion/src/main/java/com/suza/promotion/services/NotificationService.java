@@ -1,28 +1,69 @@
 package com.suza.promotion.services;
 
+import com.suza.promotion.dto.BroadcastNotificationDTO;
+import com.suza.promotion.dto.BulkResultDTO;
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.NotificationDTO;
+import com.suza.promotion.dto.UnreadCountDTO;
 import com.suza.promotion.entity.Notification;
+import com.suza.promotion.entity.NotificationArchive;
+import com.suza.promotion.entity.PromotionRequest;
 import com.suza.promotion.entity.User;
+import com.suza.promotion.event.NotificationCreatedEvent;
+import com.suza.promotion.event.NotificationsBroadcastEvent;
 import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.repository.NotificationArchiveRepository;
+import com.suza.promotion.repository.NotificationCounterRepository;
 import com.suza.promotion.repository.NotificationRepository;
 import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.repository.projection.NotificationOwner;
+import com.suza.promotion.util.CursorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
+/**
+ * Notifications and the per-user unread counters behind the navigation badge.
+ * Every change to a notification's read state goes through this service, which
+ * adjusts notification_counters in the same transaction; the retention job
+ * uses {@link #decrementUnread} for the unread rows it removes.
+ */
 @Service
 public class NotificationService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+    private static final int MAX_BULK_IDS = 1000;
+
     private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository counterRepository;
+    private final NotificationArchiveRepository archiveRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public NotificationService(NotificationRepository notificationRepository,
-                               UserRepository userRepository) {
+                               NotificationCounterRepository counterRepository,
+                               NotificationArchiveRepository archiveRepository,
+                               UserRepository userRepository,
+                               ApplicationEventPublisher eventPublisher) {
         this.notificationRepository = notificationRepository;
+        this.counterRepository = counterRepository;
+        this.archiveRepository = archiveRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public NotificationDTO createNotification(NotificationDTO dto, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -35,7 +76,23 @@ public class NotificationService {
         notification.setCreatedAt(LocalDateTime.now());
         notification.setIsRead(false);
 
-        return convertToDTO(notificationRepository.save(notification));
+        NotificationDTO saved = convertToDTO(notificationRepository.save(notification));
+        counterRepository.add(userId, 1);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(userId, saved));
+        return saved;
+    }
+
+    // Workflow notification with an email queued for it; called by the outbox dispatcher
+    @Transactional
+    public Notification notifyUser(User user, PromotionRequest request, Notification.NotificationType type,
+                                   String title, String message) {
+        Notification notification = new Notification(user, request, title, message, type);
+        notification.setCreatedAt(LocalDateTime.now());
+        notification.setNextEmailAttemptAt(LocalDateTime.now());
+        Notification saved = notificationRepository.save(notification);
+        counterRepository.add(user.getId(), 1);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(user.getId(), convertToDTO(saved)));
+        return saved;
     }
 
     public List<NotificationDTO> getAllNotifications() {
@@ -53,12 +110,54 @@ public class NotificationService {
                 .stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    // Users without a counter row have never had a notification
+    public UnreadCountDTO getUnreadCount(Long userId) {
+        return new UnreadCountDTO(userId, counterRepository.findUnreadCount(userId).orElse(0L));
+    }
+
     public List<NotificationDTO> getNotificationsByType(String type) {
         Notification.NotificationType enumType = Notification.NotificationType.valueOf(type.toUpperCase());
         return notificationRepository.findByType(enumType)
                 .stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
+    public CursorPageDTO<NotificationDTO> getAllNotifications(String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<Notification> rows = notificationRepository.findByIdLessThanOrderByIdDesc(
+                CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, Notification::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<NotificationDTO> getUserNotifications(Long userId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<Notification> rows = notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                userId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, Notification::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<NotificationDTO> getUnreadUserNotifications(Long userId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<Notification> rows = notificationRepository.findByUserIdAndIsReadFalseAndIdLessThanOrderByIdDesc(
+                userId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, Notification::getId, this::convertToDTO);
+    }
+
+    // History moved out by the retention job
+    public CursorPageDTO<NotificationDTO> getArchivedNotifications(Long userId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<NotificationArchive> rows = archiveRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                userId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, NotificationArchive::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<NotificationDTO> getNotificationsByType(String type, String cursor, Integer size) {
+        Notification.NotificationType enumType = Notification.NotificationType.valueOf(type.toUpperCase());
+        int pageSize = CursorUtils.pageSize(size);
+        List<Notification> rows = notificationRepository.findByTypeAndIdLessThanOrderByIdDesc(
+                enumType, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, Notification::getId, this::convertToDTO);
+    }
+
     public NotificationDTO getNotificationById(Long id) {
         return convertToDTO(notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found")));
@@ -74,29 +173,136 @@ public class NotificationService {
         return convertToDTO(notificationRepository.save(notification));
     }
 
+    @Transactional
     public void deleteNotification(Long id) {
-        if (!notificationRepository.existsById(id)) {
+        // Locked like the bulk delete, so a racing read or delete cannot decrement the counter twice
+        List<NotificationOwner> unread = notificationRepository.lockUnreadOwners(List.of(id));
+        if (notificationRepository.deleteByIdIn(List.of(id)) == 0) {
             throw new ResourceNotFoundException("Notification not found");
         }
-        notificationRepository.deleteById(id);
+        decrementUnread(unread);
     }
 
+    @Transactional
     public void markAsRead(Long id) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found"));
-        notification.setIsRead(true);
-        notification.setReadAt(LocalDateTime.now());
-        notificationRepository.save(notification);
+        if (notificationRepository.markRead(id, LocalDateTime.now()) > 0) {
+            counterRepository.add(notification.getUser().getId(), -1);
+        }
+    }
+
+    @Transactional
+    public BulkResultDTO markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllRead(userId, LocalDateTime.now());
+        if (updated > 0) {
+            counterRepository.add(userId, -updated);
+        }
+        return new BulkResultDTO(updated);
+    }
+
+    // Ids that are missing or already read are skipped
+    @Transactional
+    public BulkResultDTO markAsRead(Collection<Long> ids) {
+        List<NotificationOwner> unread = notificationRepository.lockUnreadOwners(checkedIds(ids));
+        if (unread.isEmpty()) {
+            return new BulkResultDTO(0);
+        }
+        int updated = notificationRepository.markRead(
+                unread.stream().map(NotificationOwner::getId).collect(Collectors.toList()), LocalDateTime.now());
+        decrementUnread(unread);
+        return new BulkResultDTO(updated);
+    }
+
+    @Transactional
+    public BulkResultDTO deleteNotifications(Collection<Long> ids) {
+        List<Long> checked = checkedIds(ids);
+        List<NotificationOwner> unread = notificationRepository.lockUnreadOwners(checked);
+        int deleted = notificationRepository.deleteByIdIn(checked);
+        decrementUnread(unread);
+        return new BulkResultDTO(deleted);
+    }
+
+    /**
+     * Sends a SYSTEM_NOTIFICATION to every active user matching the filter with
+     * one INSERT ... SELECT, and bumps their unread counters with another. Open
+     * streams catch up after commit.
+     */
+    @Transactional
+    public BulkResultDTO broadcast(BroadcastNotificationDTO dto) {
+        if (dto.getTitle() == null || dto.getTitle().isBlank() || dto.getMessage() == null || dto.getMessage().isBlank()) {
+            throw new IllegalArgumentException("Title and message are required");
+        }
+        String role = dto.getRole() == null || dto.getRole().isBlank() ? null
+                : User.Role.valueOf(dto.getRole().trim().toUpperCase(Locale.ROOT)).name();
+        LocalDateTime now = LocalDateTime.now();
+
+        long afterId = notificationRepository.findMaxId();
+        int created = notificationRepository.insertForUsers(dto.getTitle(), dto.getMessage(),
+                dto.isSendEmail() ? now : null, now, role, dto.getSchoolId(), dto.getDepartmentId());
+        if (created > 0) {
+            counterRepository.addOneForUsers(role, dto.getSchoolId(), dto.getDepartmentId());
+            eventPublisher.publishEvent(new NotificationsBroadcastEvent(afterId));
+        }
+        log.info("Broadcast '{}' to {} users", dto.getTitle(), created);
+        return new BulkResultDTO(created);
+    }
+
+    // Counters are built from the notifications when the table is new
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildUnreadCountsIfEmpty() {
+        if (counterRepository.count() > 0) {
+            return;
+        }
+        int users = counterRepository.rebuild();
+        if (users > 0) {
+            log.info("Rebuilt unread notification counters for {} users", users);
+        }
+    }
+
+    // Callers hold a transaction and have locked the rows
+    void decrementUnread(List<NotificationOwner> unread) {
+        Map<Long, Long> perUser = unread.stream()
+                .collect(Collectors.groupingBy(NotificationOwner::getUserId, Collectors.counting()));
+        perUser.forEach((userId, count) -> counterRepository.add(userId, -count));
+    }
+
+    private static List<Long> checkedIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("No notification ids given");
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinct.isEmpty() || distinct.size() > MAX_BULK_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BULK_IDS + " notification ids are allowed");
+        }
+        return distinct;
+    }
+
+    NotificationDTO toDTO(Notification notification) {
+        return convertToDTO(notification);
+    }
+
+    private NotificationDTO convertToDTO(NotificationArchive notification) {
+        return convertToDTO(notification.getId(), notification.getTitle(), notification.getMessage(),
+                notification.getType(), notification.getIsRead(), notification.getCreatedAt());
     }
 
     private NotificationDTO convertToDTO(Notification notification) {
+        return convertToDTO(notification.getId(), notification.getTitle(), notification.getMessage(),
+                notification.getType(), notification.getIsRead(), notification.getCreatedAt());
+    }
+
+    // Archived rows keep the original id, so both tables map to the same DTO
+    private NotificationDTO convertToDTO(Long id, String title, String message, Notification.NotificationType type,
+                                         Boolean read, LocalDateTime createdAt) {
         NotificationDTO dto = new NotificationDTO();
-        dto.setId(notification.getId());
-        dto.setTitle(notification.getTitle());
-        dto.setMessage(notification.getMessage());
-        dto.setType(notification.getType().name());
-        dto.setRead(notification.getIsRead());
-        dto.setTimestamp(notification.getCreatedAt());
+        dto.setId(id);
+        dto.setTitle(title);
+        dto.setMessage(message);
+        dto.setType(type.name());
+        dto.setRead(read);
+        dto.setTimestamp(createdAt);
         return dto;
     }
 }
@@ -0,0 +1,303 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.NotificationDTO;
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.event.NotificationCreatedEvent;
+import com.suza.promotion.event.NotificationsBroadcastEvent;
+import com.suza.promotion.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes new notifications to users over Server-Sent Events, so screens can
+ * keep a stream open instead of polling the list endpoints. Each event carries
+ * the notification id as its SSE id; a reconnecting client sends it back in
+ * Last-Event-ID and gets whatever it missed, up to {@link #MAX_REPLAY} rows.
+ * Every stream has its own bounded queue, drained by at most one push thread
+ * at a time, so events stay in order per stream while a slow client only holds
+ * up its own queue. A stream whose queue overflows is closed; the client
+ * reconnects and replays from Last-Event-ID. Delivery is at least once: ids
+ * commit out of order, so a stream skips only ids it has recently sent itself.
+ */
+@Service
+public class NotificationStreamService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+    private static final int MAX_REPLAY = 100;
+    private static final int MAX_STREAMS_PER_USER = 5;
+    private static final int CATCH_UP_USERS_PER_QUERY = 500;
+    // Enough to cover a replay plus the live events that raced it
+    private static final int RECENT_IDS = 256;
+    // Events waiting for one stream; a client this far behind is dropped
+    private static final int MAX_QUEUED = 128;
+    // Sent per turn before a drain gives its thread to the other streams
+    private static final int SENDS_PER_TURN = 32;
+    private static final String EVENT_NAME = "notification";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor sender;
+
+    @Value("${notifications.stream.timeout:30m}")
+    private Duration timeout;
+
+    public NotificationStreamService(NotificationRepository notificationRepository,
+                                     NotificationService notificationService,
+                                     ThreadPoolTaskExecutor notificationPushExecutor) {
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.sender = notificationPushExecutor;
+    }
+
+    /**
+     * Opens a stream for the user. With a last event id, notifications after it
+     * are replayed before live ones; without one the stream starts from now.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        // Held back until the replay is out; live events queue up behind it
+        Subscriber subscriber = new Subscriber(userId, emitter, lastEventId != null);
+
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, streams) -> {
+            List<Subscriber> list = streams != null ? streams : new CopyOnWriteArrayList<>();
+            list.add(subscriber);
+            // A user with many tabs open keeps only the newest streams
+            while (list.size() > MAX_STREAMS_PER_USER) {
+                evicted.add(list.remove(0));
+            }
+            return list;
+        });
+        evicted.forEach(Subscriber::close);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        if (lastEventId != null) {
+            List<Notification> missed = notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                    userId, lastEventId, Limit.of(MAX_REPLAY));
+            subscriber.replay(missed.stream().map(notificationService::toDTO).toList());
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        List<Subscriber> streams = subscribers.get(event.getUserId());
+        if (streams == null) {
+            return;
+        }
+        streams.forEach(subscriber -> subscriber.enqueue(event.getNotification()));
+    }
+
+    // Broadcast rows have no per-row event; connected users fetch theirs in a few IN queries
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBroadcast(NotificationsBroadcastEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        execute(() -> {
+            List<Long> connected = new ArrayList<>(subscribers.keySet());
+            for (int from = 0; from < connected.size(); from += CATCH_UP_USERS_PER_QUERY) {
+                List<Long> chunk = connected.subList(from, Math.min(from + CATCH_UP_USERS_PER_QUERY, connected.size()));
+                for (Notification notification : notificationRepository.findByUserIdInAndIdGreaterThanOrderByIdAsc(
+                        chunk, event.getAfterId())) {
+                    List<Subscriber> streams = subscribers.get(notification.getUser().getId());
+                    if (streams == null) continue;
+                    NotificationDTO dto = notificationService.toDTO(notification);
+                    streams.forEach(subscriber -> subscriber.enqueue(dto));
+                }
+            }
+        });
+    }
+
+    // Comment lines keep idle connections open through proxies and flush out dead ones
+    @Scheduled(fixedRateString = "${notifications.stream.heartbeat:25s}")
+    public void heartbeat() {
+        subscribers.values().forEach(streams -> streams.forEach(Subscriber::ping));
+    }
+
+    @PreDestroy
+    public void close() {
+        // Lets queued sends finish before the streams are closed
+        sender.shutdown();
+        subscribers.values().forEach(streams -> streams.forEach(Subscriber::close));
+        subscribers.clear();
+    }
+
+    private boolean execute(Runnable task) {
+        try {
+            sender.execute(task);
+            return true;
+        } catch (TaskRejectedException ex) {
+            // Shutting down; reconnecting clients replay from Last-Event-ID
+            log.debug("Notification push rejected: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, streams) -> {
+            streams.remove(subscriber);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    /**
+     * One open stream. The queue and flags are guarded by the subscriber's lock;
+     * the emitter and {@code recentIds} are only used by whoever holds
+     * {@code draining}, which is the replay or a single push task.
+     */
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Deque<NotificationDTO> queue = new ArrayDeque<>();
+        // Ids already sent on this stream, oldest first; an id lower than the newest may still be new
+        private final Set<Long> recentIds = new LinkedHashSet<>();
+        private boolean draining;
+        private boolean pingDue;
+        private boolean closed;
+
+        Subscriber(Long userId, SseEmitter emitter, boolean replaying) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.draining = replaying;
+        }
+
+        // Runs on the subscribing request's thread before any live event is sent
+        void replay(List<NotificationDTO> missed) {
+            for (NotificationDTO notification : missed) {
+                if (!send(notification)) return;
+            }
+            synchronized (this) {
+                draining = false;
+                scheduleIfIdle();
+            }
+        }
+
+        void enqueue(NotificationDTO notification) {
+            synchronized (this) {
+                if (closed) return;
+                if (queue.size() < MAX_QUEUED) {
+                    queue.add(notification);
+                    scheduleIfIdle();
+                    return;
+                }
+            }
+            log.debug("Notification stream of user {} fell {} events behind, closing it", userId, MAX_QUEUED);
+            close();
+        }
+
+        void ping() {
+            synchronized (this) {
+                if (closed) return;
+                pingDue = true;
+                scheduleIfIdle();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                queue.clear();
+            }
+            remove(this);
+            emitter.complete();
+        }
+
+        // Caller holds the lock
+        private void scheduleIfIdle() {
+            if (draining || closed || (queue.isEmpty() && !pingDue)) return;
+            draining = execute(this::drain);
+        }
+
+        private void drain() {
+            for (int sent = 0; sent < SENDS_PER_TURN; sent++) {
+                NotificationDTO next;
+                boolean ping;
+                synchronized (this) {
+                    next = queue.poll();
+                    ping = next == null && pingDue;
+                    if (ping) pingDue = false;
+                    if (next == null && !ping) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (next != null ? !send(next) : !sendPing()) {
+                    return;
+                }
+            }
+            // More left: back of the line, so other streams get a turn
+            synchronized (this) {
+                draining = false;
+                scheduleIfIdle();
+            }
+        }
+
+        private boolean send(NotificationDTO notification) {
+            if (recentIds.contains(notification.getId())) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(notification.getId()))
+                        .name(EVENT_NAME)
+                        .data(notification));
+                recentIds.add(notification.getId());
+                if (recentIds.size() > RECENT_IDS) {
+                    Iterator<Long> oldest = recentIds.iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                fail(ex);
+                return false;
+            }
+        }
+
+        private boolean sendPing() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                fail(ex);
+                return false;
+            }
+        }
+
+        private void fail(Exception ex) {
+            log.debug("Dropping notification stream: {}", ex.getMessage());
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            remove(this);
+            emitter.completeWithError(ex);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.PreviewDTO;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.event.DocumentStoredEvent;
+import com.suza.promotion.storage.PreviewCache;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * First-page thumbnails and a short text excerpt for PDF and image documents.
+ * Rendering happens on the preview pool after an upload commits; reads only look
+ * in the cache and queue a render on a miss, so they never wait for one.
+ * Previews are keyed by content checksum, so identical files share one. A failed
+ * render is remembered for {@code preview.retry-after} and then tried again.
+ */
+@Service
+public class PreviewService {
+    public static final String READY = "READY";
+    public static final String PENDING = "PENDING";
+    public static final String UNAVAILABLE = "UNAVAILABLE";
+    public static final String FAILED = "FAILED";
+
+    private static final Logger log = LoggerFactory.getLogger(PreviewService.class);
+    private static final int THUMBNAIL_WIDTH = 320;
+    private static final float RENDER_DPI = 72;
+    private static final int EXCERPT_LENGTH = 500;
+
+    private final DocumentService documentService;
+    private final PreviewCache previewCache;
+    private final ThreadPoolTaskExecutor previewExecutor;
+    // Keys queued or rendering, so repeated polling does not queue the same work twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${preview.retry-after:1h}")
+    private Duration retryAfter;
+
+    public PreviewService(DocumentService documentService, PreviewCache previewCache,
+                          ThreadPoolTaskExecutor previewExecutor) {
+        this.documentService = documentService;
+        this.previewCache = previewCache;
+        this.previewExecutor = previewExecutor;
+    }
+
+    @TransactionalEventListener
+    public void onDocumentStored(DocumentStoredEvent event) {
+        schedule(event.getDocument());
+    }
+
+    public PreviewDTO getPreview(Long documentId) throws IOException {
+        Document document = documentService.getDocument(documentId);
+        PreviewDTO dto = new PreviewDTO();
+        dto.setDocumentId(documentId);
+        if (!isPreviewable(document.getContentType())) {
+            dto.setStatus(UNAVAILABLE);
+            return dto;
+        }
+
+        String key = previewKey(document);
+        Optional<byte[]> excerpt = previewCache.read(key + ".txt");
+        if (excerpt.isEmpty()) {
+            if (failedRecently(key)) {
+                dto.setStatus(FAILED);
+                return dto;
+            }
+            schedule(document);
+            dto.setStatus(PENDING);
+            return dto;
+        }
+        dto.setStatus(READY);
+        dto.setExcerpt(new String(excerpt.get(), StandardCharsets.UTF_8));
+        if (previewCache.contains(key + ".png")) {
+            dto.setThumbnailUrl("/api/documents/" + documentId + "/preview/thumbnail");
+        }
+        return dto;
+    }
+
+    // PNG bytes, or empty if there is no thumbnail (yet)
+    public Optional<byte[]> getThumbnail(Long documentId) throws IOException {
+        Document document = documentService.getDocument(documentId);
+        return previewCache.read(previewKey(document) + ".png");
+    }
+
+    private void schedule(Document document) {
+        if (!isPreviewable(document.getContentType())) {
+            return;
+        }
+        String key = previewKey(document);
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            previewExecutor.execute(() -> render(document, key));
+        } catch (TaskRejectedException ex) {
+            // Queue full; the next request for this preview queues it again
+            inFlight.remove(key);
+        }
+    }
+
+    private void render(Document document, String key) {
+        try (DocumentService.DecodedFile source = documentService.decodedFile(document)) {
+            BufferedImage image;
+            String text = "";
+            if ("application/pdf".equals(document.getContentType())) {
+                try (PDDocument pdf = Loader.loadPDF(source.path().toFile())) {
+                    image = pdf.getNumberOfPages() > 0
+                            ? new PDFRenderer(pdf).renderImageWithDPI(0, RENDER_DPI) : null;
+                    PDFTextStripper stripper = new PDFTextStripper();
+                    stripper.setStartPage(1);
+                    stripper.setEndPage(1);
+                    text = stripper.getText(pdf);
+                }
+            } else {
+                image = readImage(source.path());
+            }
+
+            if (image != null) {
+                previewCache.put(key + ".png", toPng(scale(image)));
+            }
+            // Written last: its presence marks the preview as done
+            previewCache.put(key + ".txt", excerpt(text).getBytes(StandardCharsets.UTF_8));
+            previewCache.remove(key + ".failed");
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not render preview for document {}: {}", document.getId(), ex.getMessage());
+            try {
+                // Holds the time until which the failure stands
+                long until = System.currentTimeMillis() + retryAfter.toMillis();
+                previewCache.put(key + ".failed", Long.toString(until).getBytes(StandardCharsets.US_ASCII));
+            } catch (IOException ignored) {
+                // retried on the next request
+            }
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    private boolean failedRecently(String key) throws IOException {
+        Optional<byte[]> marker = previewCache.read(key + ".failed");
+        if (marker.isEmpty()) {
+            return false;
+        }
+        try {
+            return System.currentTimeMillis() < Long.parseLong(new String(marker.get(), StandardCharsets.US_ASCII));
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    // Decodes with subsampling, so a large photo never needs its full-size bitmap in memory
+    private BufferedImage readImage(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, reader.getWidth(0) / THUMBNAIL_WIDTH);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        int width = Math.min(THUMBNAIL_WIDTH, source.getWidth());
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (double) width / source.getWidth()));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            // Transparent areas would otherwise come out black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private byte[] toPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private String excerpt(String text) {
+        String collapsed = text.replaceAll("\\s+", " ").strip();
+        return collapsed.length() > EXCERPT_LENGTH ? collapsed.substring(0, EXCERPT_LENGTH) : collapsed;
+    }
+
+    private boolean isPreviewable(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        return contentType.equals("application/pdf")
+                || (contentType.startsWith("image/") && ImageIO.getImageReadersByMIMEType(contentType).hasNext());
+    }
+
+    // Files stored before checksums existed are keyed by id rather than hashed on the request thread
+    private String previewKey(Document document) {
+        return document.getChecksum() != null ? document.getChecksum() : "document-" + document.getId();
+    }
+}
@@ -0,0 +1,171 @@
+package com.suza.promotion.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suza.promotion.dto.PromotionRequestExportDTO;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes promotion requests straight to an output stream, one row at a time.
+ * The persistence context is cleared every {@link #CLEAR_EVERY} rows so memory
+ * use stays flat however many rows match.
+ */
+@Service
+public class PromotionRequestExportService {
+    private static final int CLEAR_EVERY = 500;
+
+    private static final String CSV_HEADER = "id,status,applicant_name,employee_id,school,department,"
+            + "current_rank,applied_rank,justification,submission_date,hod_review_date,"
+            + "dean_review_date,dvc_decision_date,final_decision";
+
+    private final PromotionRequestRepository promotionRequestRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public PromotionRequestExportService(PromotionRequestRepository promotionRequestRepository,
+                                         EntityManager entityManager,
+                                         ObjectMapper objectMapper) {
+        this.promotionRequestRepository = promotionRequestRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format of(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    // Parsed export filters; from/to become a half-open range on submissionDate
+    public record Filter(PromotionRequest.Status status, Long schoolId, Long departmentId,
+                         LocalDateTime fromTime, LocalDateTime toTime) {
+    }
+
+    /**
+     * Validates the raw query parameters. Called before any header or byte is
+     * written so a bad request can still be answered with a 400.
+     */
+    public Filter filter(String status, Long schoolId, Long departmentId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        PromotionRequest.Status statusFilter = null;
+        if (status != null) {
+            try {
+                statusFilter = PromotionRequest.Status.valueOf(status);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown status: " + status);
+            }
+        }
+        return new Filter(statusFilter, schoolId, departmentId,
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay());
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Format format, Filter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<PromotionRequest> rows = promotionRequestRepository.streamForExport(
+                filter.status(), filter.schoolId(), filter.departmentId(), filter.fromTime(), filter.toTime())) {
+            Iterator<PromotionRequest> it = rows.iterator();
+            while (it.hasNext()) {
+                PromotionRequestExportDTO row = convertToExportDTO(it.next());
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++count % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvRow(Writer writer, PromotionRequestExportDTO row) throws IOException {
+        Object[] values = {
+                row.getId(), row.getStatus(), row.getApplicantName(), row.getEmployeeId(),
+                row.getSchoolName(), row.getDepartmentName(), row.getCurrentRank(), row.getAppliedRank(),
+                row.getJustification(), row.getSubmissionDate(), row.getHodReviewDate(),
+                row.getDeanReviewDate(), row.getDvcDecisionDate(), row.getFinalDecision()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(csvEscape(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String csvEscape(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        // Spreadsheets evaluate cells starting with these as formulas; force them to plain text
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private PromotionRequestExportDTO convertToExportDTO(PromotionRequest request) {
+        PromotionRequestExportDTO dto = new PromotionRequestExportDTO();
+        dto.setId(request.getId());
+        dto.setStatus(request.getStatus().name());
+        dto.setApplicantName(request.getApplicant().getFullName());
+        dto.setEmployeeId(request.getApplicant().getEmployeeId());
+        dto.setSchoolName(request.getSchool().getName());
+        dto.setDepartmentName(request.getDepartment().getName());
+        dto.setCurrentRank(request.getCurrentRank());
+        dto.setAppliedRank(request.getAppliedRank());
+        dto.setJustification(request.getJustification());
+        dto.setSubmissionDate(request.getSubmissionDate());
+        dto.setHodReviewDate(request.getHodReviewDate());
+        dto.setDeanReviewDate(request.getDeanReviewDate());
+        dto.setDvcDecisionDate(request.getDvcDecisionDate());
+        dto.setFinalDecision(request.getFinalDecision());
+        return dto;
+    }
+}
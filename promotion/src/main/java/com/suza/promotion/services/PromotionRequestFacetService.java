@@ -0,0 +1,153 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.FacetBucketDTO;
+import com.suza.promotion.dto.FacetCellDTO;
+import com.suza.promotion.dto.FacetCountsDTO;
+import com.suza.promotion.dto.PromotionRequestFilterDTO;
+import com.suza.promotion.entity.Department;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.School;
+import com.suza.promotion.repository.DepartmentRepository;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.PromotionRequestSearchRepository.FacetCount;
+import com.suza.promotion.repository.SchoolRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grouped request counts for the HR, Dean and DVC dashboards. The database does
+ * the counting in one GROUP BY query and the per-facet totals are rolled up from
+ * those groups, so the work done here grows with the number of groups rather
+ * than the number of requests. Results are cached per filter for a short time
+ * because every dashboard refresh asks the same questions.
+ */
+@Service
+public class PromotionRequestFacetService {
+    private static final int MAX_CACHED_FILTERS = 256;
+
+    private final PromotionRequestRepository promotionRequestRepository;
+    private final SchoolRepository schoolRepository;
+    private final DepartmentRepository departmentRepository;
+    private final Map<FilterKey, Cached> cache = new ConcurrentHashMap<>();
+
+    @Value("${facets.cache-ttl:30s}")
+    private Duration cacheTtl;
+
+    public PromotionRequestFacetService(PromotionRequestRepository promotionRequestRepository,
+                                        SchoolRepository schoolRepository,
+                                        DepartmentRepository departmentRepository) {
+        this.promotionRequestRepository = promotionRequestRepository;
+        this.schoolRepository = schoolRepository;
+        this.departmentRepository = departmentRepository;
+    }
+
+    public FacetCountsDTO countFacets(PromotionRequestFilterDTO filter) {
+        Specification<PromotionRequest> spec = PromotionRequestService.toSpecification(filter);
+        FilterKey key = FilterKey.of(filter);
+        long now = System.currentTimeMillis();
+
+        Cached cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.counts;
+        }
+        // Two dashboards missing at the same moment may both query; the later result wins
+        FacetCountsDTO counts = load(spec);
+        if (cache.size() >= MAX_CACHED_FILTERS) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (cache.size() >= MAX_CACHED_FILTERS) cache.clear();
+        }
+        cache.put(key, new Cached(counts, now + cacheTtl.toMillis()));
+        return counts;
+    }
+
+    private FacetCountsDTO load(Specification<PromotionRequest> spec) {
+        List<FacetCount> groups = promotionRequestRepository.countFacets(spec);
+
+        long total = 0;
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<Long, Long> bySchool = new HashMap<>();
+        Map<Long, Long> byDepartment = new HashMap<>();
+        Map<String, Long> byRank = new HashMap<>();
+        Map<String, Long> byMonth = new HashMap<>();
+        List<FacetCellDTO> cells = new ArrayList<>(groups.size());
+
+        for (FacetCount group : groups) {
+            String month = group.year() == null ? null : String.format("%04d-%02d", group.year(), group.month());
+            total += group.count();
+            byStatus.merge(group.status().name(), group.count(), Long::sum);
+            bySchool.merge(group.schoolId(), group.count(), Long::sum);
+            byDepartment.merge(group.departmentId(), group.count(), Long::sum);
+            byRank.merge(group.appliedRank(), group.count(), Long::sum);
+            if (month != null) byMonth.merge(month, group.count(), Long::sum);
+
+            FacetCellDTO cell = new FacetCellDTO();
+            cell.setStatus(group.status().name());
+            cell.setSchoolId(group.schoolId());
+            cell.setDepartmentId(group.departmentId());
+            cell.setAppliedRank(group.appliedRank());
+            cell.setMonth(month);
+            cell.setCount(group.count());
+            cells.add(cell);
+        }
+
+        Map<Long, String> schoolNames = schoolRepository.findAllById(bySchool.keySet()).stream()
+                .collect(Collectors.toMap(School::getId, School::getName));
+        Map<Long, String> departmentNames = departmentRepository.findAllById(byDepartment.keySet()).stream()
+                .collect(Collectors.toMap(Department::getId, Department::getName));
+
+        FacetCountsDTO dto = new FacetCountsDTO();
+        dto.setTotal(total);
+        dto.setStatus(largestFirst(byStatus, Function.identity()));
+        dto.setSchool(largestFirst(bySchool, schoolNames::get));
+        dto.setDepartment(largestFirst(byDepartment, departmentNames::get));
+        dto.setAppliedRank(largestFirst(byRank, Function.identity()));
+        dto.setMonth(calendarOrder(byMonth));
+        dto.setCells(cells);
+        return dto;
+    }
+
+    private static <K> List<FacetBucketDTO> largestFirst(Map<K, Long> counts, Function<K, String> label) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetBucketDTO(String.valueOf(entry.getKey()), label.apply(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetBucketDTO::getCount).reversed()
+                        .thenComparing(FacetBucketDTO::getKey))
+                .collect(Collectors.toList());
+    }
+
+    // Month buckets read better in calendar order; yyyy-MM keys sort that way
+    private static List<FacetBucketDTO> calendarOrder(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> new FacetBucketDTO(entry.getKey(), entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private record Cached(FacetCountsDTO counts, long expiresAt) {}
+
+    // Filter fields in a canonical form, so "A,B" and "B,A" share an entry
+    private record FilterKey(Set<String> statuses, Long schoolId, Long departmentId, Set<String> ranks,
+                             LocalDate from, LocalDate to) {
+        static FilterKey of(PromotionRequestFilterDTO filter) {
+            return new FilterKey(canonical(filter.getStatus()), filter.getSchoolId(), filter.getDepartmentId(),
+                    canonical(filter.getAppliedRank()), filter.getSubmittedFrom(), filter.getSubmittedTo());
+        }
+
+        private static Set<String> canonical(List<String> values) {
+            return values == null ? Set.of() : values.stream().map(String::trim).collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.suza.promotion.services;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionRequestFilterDTO;
+import com.suza.promotion.entity.Document;
 import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.StoredFile;
 import com.suza.promotion.entity.User;
 import com.suza.promotion.exception.ResourceNotFoundException;
 import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.PromotionRequestSearchRepository.Keyset;
+import com.suza.promotion.repository.PromotionRequestSearchRepository.SortKey;
+import com.suza.promotion.repository.PromotionRequestSpecifications;
 import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.repository.projection.PromotionRequestSummary;
+import com.suza.promotion.util.CursorUtils;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,13 +30,23 @@ public class PromotionRequestService {
 
     private final PromotionRequestRepository promotionRequestRepository;
     private final UserRepository userRepository;
+    private final StoredFileService storedFileService;
+    private final PromotionRequestStatsService statsService;
+    private final NotificationOutboxService outboxService;
 
     public PromotionRequestService(PromotionRequestRepository promotionRequestRepository,
-                                   UserRepository userRepository) {
+                                   UserRepository userRepository,
+                                   StoredFileService storedFileService,
+                                   PromotionRequestStatsService statsService,
+                                   NotificationOutboxService outboxService) {
         this.promotionRequestRepository = promotionRequestRepository;
         this.userRepository = userRepository;
+        this.storedFileService = storedFileService;
+        this.statsService = statsService;
+        this.outboxService = outboxService;
     }
 
+    @Transactional
     public PromotionRequestDTO createRequest(PromotionRequestDTO requestDTO, Long applicantId) {
         User applicant = userRepository.findById(applicantId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -44,6 +67,7 @@ public class PromotionRequestService {
         request.setStatus(PromotionRequest.Status.DRAFT);
 
         PromotionRequest savedRequest = promotionRequestRepository.save(request);
+        statsService.created(savedRequest);
         return convertToDTO(savedRequest);
     }
 
@@ -54,29 +78,120 @@ public class PromotionRequestService {
     }
 
     public List<PromotionRequestDTO> getRequestsByApplicant(Long applicantId) {
-        return promotionRequestRepository.findByApplicantId(applicantId).stream()
+        return promotionRequestRepository.findSummariesByApplicantId(applicantId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<PromotionRequestDTO> getRequestsByStatus(String status) {
-        return promotionRequestRepository.findByStatus(PromotionRequest.Status.valueOf(status)).stream()
+        return promotionRequestRepository.findSummariesByStatus(PromotionRequest.Status.valueOf(status)).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<PromotionRequestDTO> getRequestsByDepartment(Long departmentId) {
-        return promotionRequestRepository.findByDepartmentId(departmentId).stream()
+        return promotionRequestRepository.findSummariesByDepartmentId(departmentId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<PromotionRequestDTO> getRequestsBySchool(Long schoolId) {
-        return promotionRequestRepository.findBySchoolId(schoolId).stream()
+        return promotionRequestRepository.findSummariesBySchoolId(schoolId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    public CursorPageDTO<PromotionRequestDTO> getRequestsByApplicant(Long applicantId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionRequestSummary> rows = promotionRequestRepository.findSummariesByApplicantIdBefore(
+                applicantId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionRequestSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<PromotionRequestDTO> getRequestsByStatus(String status, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionRequestSummary> rows = promotionRequestRepository.findSummariesByStatusBefore(
+                PromotionRequest.Status.valueOf(status), CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionRequestSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<PromotionRequestDTO> getRequestsByDepartment(Long departmentId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionRequestSummary> rows = promotionRequestRepository.findSummariesByDepartmentIdBefore(
+                departmentId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionRequestSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<PromotionRequestDTO> getRequestsBySchool(Long schoolId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionRequestSummary> rows = promotionRequestRepository.findSummariesBySchoolIdBefore(
+                schoolId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionRequestSummary::getId, this::convertToDTO);
+    }
+
+    /**
+     * Combined filter for HR screens. All filters that are set must match; the
+     * result is keyset-paginated in the requested order.
+     */
+    public CursorPageDTO<PromotionRequestDTO> searchRequests(PromotionRequestFilterDTO filter, String cursor, Integer size) {
+        Specification<PromotionRequest> spec = toSpecification(filter);
+        SortKey sortKey = switch (filter.getSort() == null ? "id" : filter.getSort()) {
+            case "id" -> SortKey.ID;
+            case "submissionDate" -> SortKey.SUBMISSION_DATE;
+            default -> throw new IllegalArgumentException("Unsupported sort: " + filter.getSort());
+        };
+        boolean ascending = switch (filter.getDirection() == null ? "desc" : filter.getDirection().toLowerCase()) {
+            case "asc" -> true;
+            case "desc" -> false;
+            default -> throw new IllegalArgumentException("Unsupported direction: " + filter.getDirection());
+        };
+
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionRequestSummary> rows = promotionRequestRepository.findSummaries(
+                spec, sortKey, ascending, keysetFor(sortKey, cursor), pageSize + 1);
+        if (sortKey == SortKey.SUBMISSION_DATE) {
+            return CursorUtils.toKeyedPage(rows, pageSize,
+                    row -> CursorUtils.encodeKey(row.getSubmissionDate().toString(), row.getId()), this::convertToDTO);
+        }
+        return CursorUtils.toPage(rows, pageSize, PromotionRequestSummary::getId, this::convertToDTO);
+    }
+
+    // Shared with the facet counts; rejects unknown statuses and reversed date ranges
+    static Specification<PromotionRequest> toSpecification(PromotionRequestFilterDTO filter) {
+        if (filter.getSubmittedFrom() != null && filter.getSubmittedTo() != null
+                && filter.getSubmittedFrom().isAfter(filter.getSubmittedTo())) {
+            throw new IllegalArgumentException("submittedFrom must not be after submittedTo");
+        }
+        List<PromotionRequest.Status> statuses = filter.getStatus() == null ? null : filter.getStatus().stream()
+                .map(status -> PromotionRequest.Status.valueOf(status.trim()))
+                .collect(Collectors.toList());
+        LocalDateTime from = filter.getSubmittedFrom() == null ? null : filter.getSubmittedFrom().atStartOfDay();
+        LocalDateTime to = filter.getSubmittedTo() == null ? null : filter.getSubmittedTo().plusDays(1).atStartOfDay();
+
+        return Specification.allOf(
+                PromotionRequestSpecifications.statusIn(statuses),
+                PromotionRequestSpecifications.inSchool(filter.getSchoolId()),
+                PromotionRequestSpecifications.inDepartment(filter.getDepartmentId()),
+                PromotionRequestSpecifications.appliedRankIn(filter.getAppliedRank()),
+                PromotionRequestSpecifications.submittedFrom(from),
+                PromotionRequestSpecifications.submittedBefore(to));
+    }
+
+    private Keyset keysetFor(SortKey sortKey, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        if (sortKey == SortKey.ID) {
+            return new Keyset(null, CursorUtils.decode(cursor));
+        }
+        String[] key = CursorUtils.decodeKey(cursor);
+        try {
+            return new Keyset(LocalDateTime.parse(key[0]), Long.parseLong(key[1]));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
     public PromotionRequestDTO updateRequest(Long requestId, PromotionRequestDTO dto) {
         PromotionRequest request = promotionRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
@@ -87,24 +202,48 @@ public class PromotionRequestService {
         return convertToDTO(promotionRequestRepository.save(request));
     }
 
+    @Transactional
     public void deleteRequest(Long id) {
-        PromotionRequest request = promotionRequestRepository.findById(id)
+        PromotionRequest request = promotionRequestRepository.findLockedById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
+        // Documents go with the request (cascade); their shared files lose a reference each
+        List<StoredFile> storedFiles = request.getDocuments().stream()
+                .map(Document::getStoredFile)
+                .filter(Objects::nonNull)
+                .toList();
+        statsService.deleted(request);
         promotionRequestRepository.delete(request);
+        promotionRequestRepository.flush();
+        storedFiles.forEach(storedFileService::release);
     }
 
+    @Transactional
     public PromotionRequestDTO submitRequest(Long requestId) {
-        PromotionRequest request = promotionRequestRepository.findById(requestId)
+        PromotionRequest request = promotionRequestRepository.findLockedById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
 
+        PromotionRequestStatsService.Position before = statsService.positionOf(request);
         request.setStatus(PromotionRequest.Status.SUBMITTED);
-        request.setSubmissionDate(LocalDate.now().atStartOfDay());
-
-        // Notify HoD via email or notification system here
+        request.setSubmissionDate(LocalDateTime.now());
+        statsService.moved(before, request);
+        outboxService.requestSubmitted(request);
 
         return convertToDTO(promotionRequestRepository.save(request));
     }
 
+    private PromotionRequestDTO convertToDTO(PromotionRequestSummary summary) {
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setId(summary.getId());
+        dto.setStatus(summary.getStatus().name());
+        dto.setSubmissionDate(summary.getSubmissionDate());
+        dto.setApplicantName(summary.getApplicantName());
+        dto.setCurrentRank(summary.getCurrentRank());
+        dto.setAppliedRank(summary.getAppliedRank());
+        dto.setDepartmentName(summary.getDepartmentName());
+        dto.setSchoolName(summary.getSchoolName());
+        return dto;
+    }
+
     private PromotionRequestDTO convertToDTO(PromotionRequest request) {
         PromotionRequestDTO dto = new PromotionRequestDTO();
         dto.setId(request.getId());
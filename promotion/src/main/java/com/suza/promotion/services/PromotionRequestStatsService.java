@@ -0,0 +1,155 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.RequestStatsDTO;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.PromotionRequestStat;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.PromotionRequestStatRepository;
+import com.suza.promotion.repository.projection.StatusGroupCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains promotion_request_stats, the read model behind the HR reports. Every
+ * create, status change and delete applies its deltas with an upsert in the
+ * caller's transaction, so the numbers commit or roll back with the request and
+ * reports never aggregate over promotion_requests. Stage durations are counted
+ * when a request leaves a status, using the time it entered it.
+ */
+@Service
+public class PromotionRequestStatsService {
+    private static final Logger log = LoggerFactory.getLogger(PromotionRequestStatsService.class);
+
+    private final PromotionRequestStatRepository statRepository;
+    private final PromotionRequestRepository requestRepository;
+
+    public PromotionRequestStatsService(PromotionRequestStatRepository statRepository,
+                                        PromotionRequestRepository requestRepository) {
+        this.statRepository = statRepository;
+        this.requestRepository = requestRepository;
+    }
+
+    /**
+     * The group a request counts towards and when it entered its status. Take
+     * one before changing a request and pass it to {@link #moved}; load the
+     * request with {@code findLockedById} so no other change can move it between
+     * this read and the commit.
+     */
+    public record Position(Long schoolId, Long departmentId, PromotionRequest.Status status, String period,
+                           LocalDateTime since) {
+        boolean sameGroup(Position other) {
+            return Objects.equals(schoolId, other.schoolId) && Objects.equals(departmentId, other.departmentId)
+                    && status == other.status && period.equals(other.period);
+        }
+    }
+
+    public Position positionOf(PromotionRequest request) {
+        LocalDateTime dated = request.getSubmissionDate() != null ? request.getSubmissionDate() : request.getCreatedAt();
+        String period = YearMonth.from(dated != null ? dated : LocalDateTime.now()).toString();
+        // Rows from before the column existed fall back to their last update
+        LocalDateTime since = request.getStatusChangedAt() != null ? request.getStatusChangedAt()
+                : request.getUpdatedAt() != null ? request.getUpdatedAt() : request.getCreatedAt();
+        return new Position(request.getSchool().getId(), request.getDepartment().getId(),
+                request.getStatus(), period, since);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(PromotionRequest request) {
+        if (request.getStatusChangedAt() == null) {
+            request.setStatusChangedAt(LocalDateTime.now());
+        }
+        add(positionOf(request), 1, 0, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moved(Position before, PromotionRequest request) {
+        if (before.status() != request.getStatus()) {
+            LocalDateTime now = LocalDateTime.now();
+            long seconds = before.since() == null ? 0 : Math.max(0, Duration.between(before.since(), now).getSeconds());
+            request.setStatusChangedAt(now);
+            add(before, -1, 1, seconds);
+            add(positionOf(request), 1, 0, 0);
+            return;
+        }
+        Position after = positionOf(request);
+        if (!after.sameGroup(before)) {
+            add(before, -1, 0, 0);
+            add(after, 1, 0, 0);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(PromotionRequest request) {
+        add(positionOf(request), -1, 0, 0);
+    }
+
+    // from/to are inclusive yyyy-MM periods
+    public List<RequestStatsDTO> getStats(Long schoolId, Long departmentId, String status, String from, String to) {
+        PromotionRequest.Status statusFilter = status == null ? null : PromotionRequest.Status.valueOf(status);
+        return statRepository.findForReport(schoolId, departmentId, statusFilter, period(from), period(to))
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Counts are rebuilt from the requests when the table is new; earlier stage durations are not known
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (statRepository.count() > 0) {
+            return;
+        }
+        List<StatusGroupCount> groups = requestRepository.countByStatusGroup();
+        for (StatusGroupCount group : groups) {
+            YearMonth period = group.getYear() == null ? YearMonth.now() : YearMonth.of(group.getYear(), group.getMonth());
+            statRepository.add(group.getSchoolId(), group.getDepartmentId(), group.getStatus().name(),
+                    period.toString(), group.getCount(), 0, 0);
+        }
+        if (!groups.isEmpty()) {
+            log.info("Rebuilt promotion request stats from {} groups", groups.size());
+        }
+    }
+
+    private void add(Position position, long requests, long exited, long seconds) {
+        statRepository.add(position.schoolId(), position.departmentId(), position.status().name(),
+                position.period(), requests, exited, seconds);
+    }
+
+    private static String period(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(value.trim()).toString();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Period must be yyyy-MM: " + value);
+        }
+    }
+
+    private RequestStatsDTO convertToDTO(PromotionRequestStat stat) {
+        RequestStatsDTO dto = new RequestStatsDTO();
+        dto.setSchoolId(stat.getSchoolId());
+        dto.setDepartmentId(stat.getDepartmentId());
+        dto.setStatus(stat.getStatus().name());
+        dto.setPeriod(stat.getPeriod());
+        dto.setRequestCount(stat.getRequestCount());
+        dto.setExitedCount(stat.getExitedCount());
+        if (stat.getExitedCount() > 0) {
+            dto.setAverageDaysInStatus(stat.getSecondsInStatus() / 86400.0 / stat.getExitedCount());
+        }
+        return dto;
+    }
+}
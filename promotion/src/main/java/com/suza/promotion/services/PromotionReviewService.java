@@ -1,5 +1,6 @@
 package com.suza.promotion.services;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.PromotionReviewDTO;
 import com.suza.promotion.entity.PromotionRequest;
 import com.suza.promotion.entity.PromotionReview;
@@ -8,6 +9,7 @@ import com.suza.promotion.exception.ResourceNotFoundException;
 import com.suza.promotion.repository.PromotionReviewRepository;
 import com.suza.promotion.repository.PromotionRequestRepository;
 import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.util.CursorUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,21 +22,28 @@ public class PromotionReviewService {
     private final PromotionReviewRepository reviewRepository;
     private final PromotionRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final PromotionRequestStatsService statsService;
+    private final NotificationOutboxService outboxService;
 
-    public PromotionReviewService(PromotionReviewRepository reviewRepository, PromotionRequestRepository requestRepository, UserRepository userRepository) {
+    public PromotionReviewService(PromotionReviewRepository reviewRepository, PromotionRequestRepository requestRepository,
+                                  UserRepository userRepository, PromotionRequestStatsService statsService,
+                                  NotificationOutboxService outboxService) {
         this.reviewRepository = reviewRepository;
         this.requestRepository = requestRepository;
         this.userRepository = userRepository;
+        this.statsService = statsService;
+        this.outboxService = outboxService;
     }
 
-    // Create or update a review (approve or reject)
+    // Create or update a review (approve or reject); the status change and its stats commit together
+    @Transactional
     public PromotionReviewDTO createOrUpdateReview(PromotionReviewDTO dto) {
         // Validate input IDs
         if (dto.getPromotionRequestId() == null || dto.getReviewerId() == null) {
             throw new IllegalArgumentException("PromotionRequestId and ReviewerId must be provided");
         }
 
-        PromotionRequest request = requestRepository.findById(dto.getPromotionRequestId())
+        PromotionRequest request = requestRepository.findLockedById(dto.getPromotionRequestId())
                 .orElseThrow(() -> new ResourceNotFoundException("PromotionRequest not found"));
 
         User reviewer = userRepository.findById(dto.getReviewerId())
@@ -53,19 +62,25 @@ public class PromotionReviewService {
         review.setReviewDate(LocalDateTime.now());
 
         PromotionReview savedReview = reviewRepository.save(review);
+        PromotionRequestStatsService.Position before = statsService.positionOf(request);
 
         // Handle approval flow only if approved
         if (savedReview.getDecision() == PromotionReview.Decision.APPROVED) {
-            advanceApproval(request, reviewer.getRole());
+            advanceApproval(request, reviewer.getRole(), savedReview.getReviewDate());
         } else if (savedReview.getDecision() == PromotionReview.Decision.REJECTED) {
+            stampStage(request, reviewer.getRole(), savedReview.getReviewDate());
             request.setStatus(PromotionRequest.Status.REJECTED);
+            request.setFinalDecision(PromotionReview.Decision.REJECTED.name());
             requestRepository.save(request);
         }
+        statsService.moved(before, request);
+        outboxService.requestReviewed(request, reviewer, savedReview.getDecision());
 
         return convertToDTO(savedReview);
     }
 
-    private void advanceApproval(PromotionRequest request, User.Role currentRole) {
+    private void advanceApproval(PromotionRequest request, User.Role currentRole, LocalDateTime reviewedAt) {
+        stampStage(request, currentRole, reviewedAt);
         switch (currentRole) {
             case HOD:
                 request.setStatus(PromotionRequest.Status.UNDER_DEAN_REVIEW);
@@ -75,6 +90,7 @@ public class PromotionReviewService {
                 break;
             case DVC:
                 request.setStatus(PromotionRequest.Status.APPROVED);
+                request.setFinalDecision(PromotionReview.Decision.APPROVED.name());
                 break;
             default:
                 throw new IllegalStateException("Unknown role for approval flow: " + currentRole);
@@ -82,6 +98,16 @@ public class PromotionReviewService {
         requestRepository.save(request);
     }
 
+    // Records when the reviewer's stage ended; these dates feed the stage-duration report
+    private void stampStage(PromotionRequest request, User.Role role, LocalDateTime reviewedAt) {
+        switch (role) {
+            case HOD -> request.setHodReviewDate(reviewedAt);
+            case DEAN -> request.setDeanReviewDate(reviewedAt);
+            case DVC -> request.setDvcDecisionDate(reviewedAt);
+            default -> { }
+        }
+    }
+
     // Get review by ID
     public PromotionReviewDTO getReview(Long id) {
         PromotionReview review = reviewRepository.findById(id)
@@ -135,6 +161,41 @@ public class PromotionReviewService {
                 .collect(Collectors.toList());
     }
 
+    // Keyset-paginated variants of the list lookups above
+    public CursorPageDTO<PromotionReviewDTO> getAllReviews(String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionReview> rows = reviewRepository.findByIdLessThanOrderByIdDesc(
+                CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionReview::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<PromotionReviewDTO> findByReviewer(Long reviewerId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionReview> rows = reviewRepository.findByReviewerIdAndIdLessThanOrderByIdDesc(
+                reviewerId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionReview::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<PromotionReviewDTO> findByPromotionRequest(Long requestId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionReview> rows = reviewRepository.findByPromotionRequestIdAndIdLessThanOrderByIdDesc(
+                requestId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionReview::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<PromotionReviewDTO> findByDecision(String decisionStr, String cursor, Integer size) {
+        PromotionReview.Decision decision;
+        try {
+            decision = PromotionReview.Decision.valueOf(decisionStr.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid decision value: " + decisionStr);
+        }
+        int pageSize = CursorUtils.pageSize(size);
+        List<PromotionReview> rows = reviewRepository.findByDecisionAndIdLessThanOrderByIdDesc(
+                decision, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, PromotionReview::getId, this::convertToDTO);
+    }
+
     private PromotionReviewDTO convertToDTO(PromotionReview review) {
         PromotionReviewDTO dto = new PromotionReviewDTO();
         dto.setId(review.getId());
@@ -0,0 +1,49 @@
+package com.suza.promotion.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for the school and department lists, bumped on every write.
+ * The list endpoints turn them into ETags so dashboards that refresh these lists
+ * get a 304 without touching the database. The boot time is part of the tag so
+ * versions from a previous run never match.
+ */
+@Service
+public class ReferenceDataVersionService {
+    private final long bootTime = System.currentTimeMillis() / 1000 * 1000;
+    private final Version schools = new Version();
+    private final Version departments = new Version();
+
+    public String schoolsETag() { return schools.etag("schools"); }
+    public long schoolsLastModified() { return schools.lastModified; }
+
+    public String departmentsETag() { return departments.etag("departments"); }
+    public long departmentsLastModified() { return departments.lastModified; }
+
+    // Department DTOs carry the school name, so a school change invalidates both lists
+    public void schoolsChanged() {
+        schools.bump();
+        departments.bump();
+    }
+
+    public void departmentsChanged() {
+        departments.bump();
+    }
+
+    private class Version {
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long lastModified = bootTime;
+
+        void bump() {
+            counter.incrementAndGet();
+            // HTTP dates have second precision; never move backwards
+            lastModified = Math.max(lastModified, System.currentTimeMillis() / 1000 * 1000);
+        }
+
+        String etag(String name) {
+            return "\"" + name + "-" + bootTime + "-" + counter.get() + "\"";
+        }
+    }
+}
@@ -12,15 +12,18 @@ import java.util.stream.Collectors;
 @Service
 public class SchoolService {
     private final SchoolRepository schoolRepository;
+    private final ReferenceDataVersionService referenceDataVersions;
 
-    public SchoolService(SchoolRepository schoolRepository) {
+    public SchoolService(SchoolRepository schoolRepository, ReferenceDataVersionService referenceDataVersions) {
         this.schoolRepository = schoolRepository;
+        this.referenceDataVersions = referenceDataVersions;
     }
 
     public SchoolDTO createSchool(SchoolDTO schoolDTO) {
         School school = new School();
         school.setName(schoolDTO.getName());
         School savedSchool = schoolRepository.save(school);
+        referenceDataVersions.schoolsChanged();
         return convertToDTO(savedSchool);
     }
 
@@ -42,6 +45,7 @@ public class SchoolService {
 
         school.setName(schoolDTO.getName());
         School updated = schoolRepository.save(school);
+        referenceDataVersions.schoolsChanged();
         return convertToDTO(updated);
     }
 
@@ -49,6 +53,7 @@ public class SchoolService {
         School school = schoolRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("School not found"));
         schoolRepository.delete(school);
+        referenceDataVersions.schoolsChanged();
     }
 
     private SchoolDTO convertToDTO(School school) {
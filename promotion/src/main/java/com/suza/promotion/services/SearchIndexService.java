@@ -0,0 +1,284 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.SearchHitDTO;
+import com.suza.promotion.dto.SearchResultsDTO;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.PromotionReview;
+import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.repository.DocumentRepository;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.PromotionReviewRepository;
+import com.suza.promotion.util.CursorUtils;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lucene index over promotion requests, review comments and document text, kept
+ * on local disk. Entity changes arrive through {@code SearchIndexListener} once
+ * they commit and are applied one at a time on the indexer thread, which reloads
+ * the row and replaces (or deletes) its index entry. Searches use a near-real-time
+ * reader, so changes show up without waiting for an index commit.
+ */
+@Service
+public class SearchIndexService {
+    public static final String REQUEST = "request";
+    public static final String REVIEW = "review";
+    public static final String DOCUMENT = "document";
+    public static final Set<String> KINDS = Set.of(REQUEST, REVIEW, DOCUMENT);
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final String KEY = "key";
+    private static final String KIND = "kind";
+    private static final String ID = "id";
+    private static final String REQUEST_ID = "requestId";
+    private static final String TITLE = "title";
+    private static final String TEXT = "text";
+    private static final String SUMMARY = "summary";
+
+    private static final int MAX_DOCUMENT_CHARS = 1_000_000;
+    private static final int SUMMARY_LENGTH = 200;
+    // Deepest hit a page may reach; ranked results past this are not worth paging to
+    private static final int MAX_RESULTS = 1000;
+
+    private final PromotionRequestRepository promotionRequestRepository;
+    private final PromotionReviewRepository promotionReviewRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ThreadPoolTaskExecutor indexer;
+    // Keys queued but not yet indexed; a burst of changes to one row is indexed once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public SearchIndexService(PromotionRequestRepository promotionRequestRepository,
+                              PromotionReviewRepository promotionReviewRepository,
+                              DocumentRepository documentRepository,
+                              DocumentService documentService,
+                              PlatformTransactionManager transactionManager,
+                              ThreadPoolTaskExecutor searchIndexExecutor,
+                              @Value("${search.index-dir:${file.upload-dir}/search-index}") String indexDir)
+            throws IOException {
+        this.promotionRequestRepository = promotionRequestRepository;
+        this.promotionReviewRepository = promotionReviewRepository;
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.indexer = searchIndexExecutor;
+        this.writer = new IndexWriter(FSDirectory.open(Paths.get(indexDir)), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    // Queues a row for (re)indexing; a row that no longer exists is removed from the index
+    public void changed(String kind, Long id) {
+        String key = kind + ":" + id;
+        if (pending.add(key)) {
+            try {
+                indexer.execute(() -> reindex(kind, id, key));
+            } catch (TaskRejectedException ex) {
+                // Shutting down; the change is lost from the index until it is rebuilt
+                pending.remove(key);
+                log.warn("Could not queue {} for indexing: {}", key, ex.getMessage());
+            }
+        }
+    }
+
+    public SearchResultsDTO search(String queryText, String kind, int page, Integer size) throws IOException {
+        if (kind != null && !KINDS.contains(kind)) {
+            throw new IllegalArgumentException("Unknown kind " + kind);
+        }
+        int pageSize = CursorUtils.pageSize(size);
+        int from = Math.max(page, 0) * pageSize;
+        if (from + pageSize > MAX_RESULTS) {
+            throw new IllegalArgumentException("Results are limited to the first " + MAX_RESULTS + " hits");
+        }
+
+        SearchResultsDTO results = new SearchResultsDTO();
+        results.setQuery(queryText);
+        results.setPage(Math.max(page, 0));
+        results.setSize(pageSize);
+        results.setHits(new ArrayList<>());
+
+        Query query = new SimpleQueryParser(analyzer, Map.of(TITLE, 2f, TEXT, 1f)).parse(queryText);
+        if (query == null) {
+            return results;
+        }
+        if (kind != null) {
+            query = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(KIND, kind)), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs top = searcher.search(query, from + pageSize);
+            StoredFields storedFields = searcher.storedFields();
+            results.setTotal(top.totalHits.value);
+            for (int i = from; i < top.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = top.scoreDocs[i];
+                org.apache.lucene.document.Document entry = storedFields.document(scoreDoc.doc);
+                SearchHitDTO hit = new SearchHitDTO();
+                hit.setKind(entry.get(KIND));
+                hit.setId(entry.getField(ID).numericValue().longValue());
+                hit.setRequestId(entry.getField(REQUEST_ID).numericValue().longValue());
+                hit.setTitle(entry.get(TITLE));
+                hit.setSummary(entry.get(SUMMARY));
+                hit.setScore(scoreDoc.score);
+                results.getHits().add(hit);
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return results;
+    }
+
+    // A lost or new index directory is filled from the database in the background
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (writer.getDocStats().numDocs > 0) {
+            return;
+        }
+        promotionRequestRepository.findAllIds().forEach(id -> changed(REQUEST, id));
+        promotionReviewRepository.findAllIds().forEach(id -> changed(REVIEW, id));
+        documentRepository.findAllIds().forEach(id -> changed(DOCUMENT, id));
+    }
+
+    // Searches see changes straight away; committing only makes them survive a restart
+    @Scheduled(fixedDelayString = "${search.commit-interval:30s}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        // Drains the queue before the writer goes; Spring would only stop the executor after this bean
+        indexer.shutdown();
+        searcherManager.close();
+        writer.close();
+    }
+
+    private void reindex(String kind, Long id, String key) {
+        pending.remove(key);
+        try {
+            org.apache.lucene.document.Document entry = build(kind, id);
+            if (entry == null) {
+                writer.deleteDocuments(new Term(KEY, key));
+            } else {
+                writer.updateDocument(new Term(KEY, key), entry);
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not index {}: {}", key, ex.getMessage());
+        }
+    }
+
+    private org.apache.lucene.document.Document build(String kind, Long id) throws IOException {
+        switch (kind) {
+            case REQUEST:
+                return readOnlyTransaction.execute(status -> promotionRequestRepository.findById(id)
+                        .map(this::requestEntry).orElse(null));
+            case REVIEW:
+                return readOnlyTransaction.execute(status -> promotionReviewRepository.findById(id)
+                        .map(this::reviewEntry).orElse(null));
+            case DOCUMENT:
+                // The row is read in a transaction, the text extracted after it; parsing a PDF can take a while
+                DocumentSource source = readOnlyTransaction.execute(status -> documentRepository.findById(id)
+                        .map(document -> new DocumentSource(document, document.getPromotionRequest().getId()))
+                        .orElse(null));
+                return source != null ? documentEntry(source) : null;
+            default:
+                throw new IllegalArgumentException("Unknown kind " + kind);
+        }
+    }
+
+    private org.apache.lucene.document.Document requestEntry(PromotionRequest request) {
+        String title = request.getApplicant().getFullName() + ": "
+                + request.getCurrentRank() + " to " + request.getAppliedRank();
+        return entry(REQUEST, request.getId(), request.getId(), title,
+                join(request.getJustification(), request.getFinalDecision()));
+    }
+
+    private org.apache.lucene.document.Document reviewEntry(PromotionReview review) {
+        String title = "Review by " + review.getReviewer().getFullName() + " (" + review.getDecision() + ")";
+        return entry(REVIEW, review.getId(), review.getPromotionRequest().getId(), title, review.getComments());
+    }
+
+    // A document detached from its session, with the one association the entry needs
+    private record DocumentSource(Document document, Long requestId) {}
+
+    private org.apache.lucene.document.Document documentEntry(DocumentSource source) throws IOException {
+        Document document = source.document();
+        String text;
+        try {
+            text = documentService.extractText(document, MAX_DOCUMENT_CHARS);
+        } catch (ResourceNotFoundException ex) {
+            text = "";
+        }
+        return entry(DOCUMENT, document.getId(), source.requestId(),
+                document.getOriginalName(), join(document.getDescription(), text));
+    }
+
+    private org.apache.lucene.document.Document entry(String kind, Long id, Long requestId, String title, String text) {
+        org.apache.lucene.document.Document entry = new org.apache.lucene.document.Document();
+        entry.add(new StringField(KEY, kind + ":" + id, Field.Store.NO));
+        entry.add(new StringField(KIND, kind, Field.Store.YES));
+        entry.add(new StoredField(ID, id));
+        entry.add(new StoredField(REQUEST_ID, requestId));
+        entry.add(new TextField(TITLE, title, Field.Store.YES));
+        entry.add(new TextField(TEXT, text, Field.Store.NO));
+        String summary = text.replaceAll("\\s+", " ").strip();
+        entry.add(new StoredField(SUMMARY, summary.length() > SUMMARY_LENGTH
+                ? summary.substring(0, SUMMARY_LENGTH) : summary));
+        return entry;
+    }
+
+    private String join(String first, String second) {
+        return (first != null ? first : "") + "\n" + (second != null ? second : "");
+    }
+}
@@ -0,0 +1,104 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.StageDurationDTO;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.projection.StageTimestamps;
+import com.suza.promotion.util.DurationHistogram;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Time-in-stage percentiles for finding the slow approval stage. Requests are
+ * streamed from the database once and every duration goes into a fixed-size
+ * histogram for the whole university, its school and its department, so memory
+ * depends on the number of departments, not on the number of requests.
+ * Requests submitted before submission times were recorded carry the start of
+ * their submission day, which makes their HOD stage look up to a day longer.
+ */
+@Service
+public class StageDurationService {
+
+    public enum Stage {
+        HOD_REVIEW, DEAN_REVIEW, DVC_DECISION, TOTAL
+    }
+
+    private final PromotionRequestRepository promotionRequestRepository;
+
+    public StageDurationService(PromotionRequestRepository promotionRequestRepository) {
+        this.promotionRequestRepository = promotionRequestRepository;
+    }
+
+    // from/to filter on submission date (inclusive)
+    @Transactional(readOnly = true)
+    public List<StageDurationDTO> getStageDurations(Long schoolId, Long departmentId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        LocalDateTime fromTime = from == null ? null : from.atStartOfDay();
+        LocalDateTime toTime = to == null ? null : to.plusDays(1).atStartOfDay();
+
+        Map<GroupKey, DurationHistogram> histograms = new HashMap<>();
+        try (Stream<StageTimestamps> rows = promotionRequestRepository.streamStageTimestamps(
+                schoolId, departmentId, fromTime, toTime)) {
+            rows.forEach(row -> {
+                record(histograms, Stage.HOD_REVIEW, row, row.getSubmissionDate(), row.getHodReviewDate());
+                record(histograms, Stage.DEAN_REVIEW, row, row.getHodReviewDate(), row.getDeanReviewDate());
+                record(histograms, Stage.DVC_DECISION, row, row.getDeanReviewDate(), row.getDvcDecisionDate());
+                record(histograms, Stage.TOTAL, row, row.getSubmissionDate(), row.getDvcDecisionDate());
+            });
+        }
+
+        List<StageDurationDTO> result = new ArrayList<>(histograms.size());
+        histograms.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(GroupKey.ORDER))
+                .forEach(entry -> result.add(convertToDTO(entry.getKey(), entry.getValue())));
+        return result;
+    }
+
+    private static void record(Map<GroupKey, DurationHistogram> histograms, Stage stage, StageTimestamps row,
+                               LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return;
+        }
+        long seconds = Duration.between(start, end).getSeconds();
+        histograms.computeIfAbsent(new GroupKey(stage, null, null), key -> new DurationHistogram()).record(seconds);
+        histograms.computeIfAbsent(new GroupKey(stage, row.getSchoolId(), null), key -> new DurationHistogram()).record(seconds);
+        histograms.computeIfAbsent(new GroupKey(stage, row.getSchoolId(), row.getDepartmentId()),
+                key -> new DurationHistogram()).record(seconds);
+    }
+
+    private StageDurationDTO convertToDTO(GroupKey key, DurationHistogram histogram) {
+        StageDurationDTO dto = new StageDurationDTO();
+        dto.setStage(key.stage().name());
+        dto.setSchoolId(key.schoolId());
+        dto.setDepartmentId(key.departmentId());
+        dto.setCount(histogram.count());
+        dto.setP50Hours(hours(histogram.percentile(0.50)));
+        dto.setP90Hours(hours(histogram.percentile(0.90)));
+        dto.setP99Hours(hours(histogram.percentile(0.99)));
+        dto.setMaxHours(hours(histogram.max()));
+        return dto;
+    }
+
+    // One decimal place is plenty for SLA reporting
+    private static double hours(long seconds) {
+        return Math.round(seconds / 360.0) / 10.0;
+    }
+
+    private record GroupKey(Stage stage, Long schoolId, Long departmentId) {
+        // Stage first, then university-wide, per school and per department rows
+        static final Comparator<GroupKey> ORDER = Comparator.comparing(GroupKey::stage)
+                .thenComparing(GroupKey::schoolId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(GroupKey::departmentId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+}
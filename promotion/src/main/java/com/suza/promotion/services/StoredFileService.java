@@ -0,0 +1,217 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.entity.StoredFile;
+import com.suza.promotion.repository.StoredFileRepository;
+import com.suza.promotion.storage.BlobStorage;
+import com.suza.promotion.util.Checksums;
+import com.suza.promotion.util.ContentTypes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Deduplicating, content-addressed file store. Uploads are hashed while they are
+ * copied to a staging file; if a blob with the same SHA-256 exists its reference
+ * count goes up and the copy is dropped, otherwise the staging file is committed
+ * to {@link BlobStorage} with the digest as its key. New blobs of compressible
+ * types are gzipped at rest when that saves enough space.
+ */
+@Service
+public class StoredFileService {
+    public static final String GZIP = "gzip";
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final StoredFileRepository storedFileRepository;
+    private final BlobStorage blobStorage;
+    // Serialises creating and deleting the file for a digest until the DB change commits
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    @Value("${file.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    // Files smaller than this are left alone; the saving would be a few bytes
+    @Value("${file.compression.min-size:1024}")
+    private long compressionMinSize;
+
+    // The compressed copy is kept only if it is at most this fraction of the original
+    @Value("${file.compression.max-ratio:0.9}")
+    private double compressionMaxRatio;
+
+    public StoredFileService(StoredFileRepository storedFileRepository, BlobStorage blobStorage) {
+        this.storedFileRepository = storedFileRepository;
+        this.blobStorage = blobStorage;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Transactional
+    public StoredFile store(InputStream content, String contentType) throws IOException {
+        Path tmp = blobStorage.createStagingFile();
+
+        MessageDigest digest = Checksums.sha256();
+        long size;
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            size = Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        return adopt(tmp, Checksums.hex(digest), size, contentType);
+    }
+
+    /**
+     * Stores a staging file that has already been written, such as an assembled
+     * chunked upload. The file is moved, not copied, and
+     * must not be used by the caller afterwards.
+     */
+    @Transactional
+    public StoredFile storeFile(Path file, String contentType) throws IOException {
+        return adopt(file, Checksums.sha256Hex(file), Files.size(file), contentType);
+    }
+
+    private StoredFile adopt(Path tmp, String sha256, long size, String contentType) throws IOException {
+        Optional<StoredFile> existing = reuse(tmp, sha256);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        String encoding = null;
+        if (compressionEnabled && size >= compressionMinSize && ContentTypes.isCompressible(contentType)) {
+            Path compressed = compress(tmp);
+            if (Files.size(compressed) <= size * compressionMaxRatio) {
+                Files.delete(tmp);
+                tmp = compressed;
+                encoding = GZIP;
+            } else {
+                Files.delete(compressed);
+            }
+        }
+
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        // The same content may have been committed while this upload waited for the lock
+        try {
+            existing = reuse(tmp, sha256);
+        } catch (RuntimeException | IOException ex) {
+            lock.unlock();
+            throw ex;
+        }
+        if (existing.isPresent()) {
+            lock.unlock();
+            return existing.get();
+        }
+        BlobCleanup cleanup = new BlobCleanup(lock, sha256);
+        TransactionSynchronizationManager.registerSynchronization(cleanup);
+        blobStorage.commit(tmp, sha256);
+        cleanup.written = true;
+        StoredFile storedFile = new StoredFile(sha256, sha256, size);
+        storedFile.setContentEncoding(encoding);
+        return storedFileRepository.save(storedFile);
+    }
+
+    // Takes a reference on an existing blob for the digest and drops the staging copy
+    private Optional<StoredFile> reuse(Path tmp, String sha256) throws IOException {
+        if (storedFileRepository.incrementReferences(sha256) == 0) {
+            return Optional.empty();
+        }
+        Files.deleteIfExists(tmp);
+        return Optional.of(storedFileRepository.findBySha256(sha256)
+                .orElseThrow(() -> new IllegalStateException("Stored file vanished: " + sha256)));
+    }
+
+    // Gzips a staging file into a new one; the source is still in the page cache
+    private Path compress(Path source) throws IOException {
+        Path target = blobStorage.createStagingFile();
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException ex) {
+            Files.deleteIfExists(target);
+            throw ex;
+        }
+        return target;
+    }
+
+    /**
+     * Drops one reference. The row goes when the count reaches zero and the file
+     * is deleted once that commits, unless a new upload has recreated it meanwhile.
+     * Rows pointing at the blob must already be deleted and flushed.
+     */
+    @Transactional
+    public void release(StoredFile storedFile) {
+        // Read before the row can go; storedFile may be an uninitialised proxy
+        String sha256 = storedFile.getSha256();
+
+        storedFileRepository.decrementReferences(storedFile.getId());
+        if (storedFileRepository.deleteIfUnreferenced(storedFile.getId()) == 0) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReentrantLock lock = lockFor(sha256);
+                lock.lock();
+                try {
+                    if (!storedFileRepository.existsBySha256(sha256)) {
+                        blobStorage.delete(sha256);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    private ReentrantLock lockFor(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Releases the digest's lock once the inserting transaction ends. A rolled-back
+     * insert removes the blob it wrote, but only while no row refers to the digest:
+     * another instance may have committed the same content in the meantime.
+     */
+    private final class BlobCleanup implements TransactionSynchronization {
+        private final ReentrantLock lock;
+        private final String sha256;
+        private boolean written;
+
+        BlobCleanup(ReentrantLock lock, String sha256) {
+            this.lock = lock;
+            this.sha256 = sha256;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (status != STATUS_COMMITTED && written && !storedFileRepository.existsBySha256(sha256)) {
+                    blobStorage.delete(sha256);
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // left for the next upload of the same content to overwrite
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.suza.promotion.services;
 
+import com.suza.promotion.dto.CursorPageDTO;
 import com.suza.promotion.dto.RegisterUserDTO;
 import com.suza.promotion.dto.UserDTO;
 import com.suza.promotion.dto.UserProfileDTO;
@@ -8,6 +9,8 @@ import com.suza.promotion.entity.User.Role;
 import com.suza.promotion.exception.DuplicateEmailException;
 import com.suza.promotion.exception.ResourceNotFoundException;
 import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.repository.projection.UserSummary;
+import com.suza.promotion.util.CursorUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -19,10 +22,13 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserTypeaheadIndex userTypeaheadIndex;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       UserTypeaheadIndex userTypeaheadIndex) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userTypeaheadIndex = userTypeaheadIndex;
     }
 
     public UserDTO registerUser(RegisterUserDTO registerDTO) {
@@ -44,6 +50,7 @@ public class UserService {
         user.setRole(Role.valueOf(registerDTO.getRole()));
 
         User savedUser = userRepository.save(user);
+        userTypeaheadIndex.put(savedUser);
         return convertToDTO(savedUser);
     }
 
@@ -54,7 +61,7 @@ public class UserService {
     }
 
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
+        return userRepository.findAllSummaries().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -74,33 +81,76 @@ public class UserService {
         return dto;
     }
 
+    private UserDTO convertToDTO(UserSummary summary) {
+        UserDTO dto = new UserDTO();
+        dto.setId(summary.getId());
+        dto.setName(summary.getFullName());
+        dto.setEmail(summary.getEmail());
+        dto.setRole(summary.getRole().name());
+        dto.setDepartmentName(summary.getDepartmentName());
+        dto.setSchoolName(summary.getSchoolName());
+        return dto;
+    }
+
     public Optional<UserDTO> findByEmail(String email) {
         return userRepository.findByEmail(email)
                 .map(this::convertToDTO);
     }
 
+    public List<UserDTO> typeahead(String query, Role role, Long schoolId, Long departmentId, Integer limit) {
+        return userTypeaheadIndex.search(query, role, schoolId, departmentId, limit);
+    }
+
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
 
     public List<UserDTO> findByRole(Role role) {
-        return userRepository.findByRole(role).stream()
+        return userRepository.findSummariesByRole(role).stream()
                 .map(this::convertToDTO)
                 .toList();
     }
 
     public List<UserDTO> findByDepartmentId(Long departmentId) {
-        return userRepository.findByDepartmentId(departmentId).stream()
+        return userRepository.findSummariesByDepartmentId(departmentId).stream()
                 .map(this::convertToDTO)
                 .toList();
     }
 
     public List<UserDTO> findBySchoolId(Long schoolId) {
-        return userRepository.findBySchoolId(schoolId).stream()
+        return userRepository.findSummariesBySchoolId(schoolId).stream()
                 .map(this::convertToDTO)
                 .toList();
     }
 
+    public CursorPageDTO<UserDTO> getAllUsers(String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<UserSummary> rows = userRepository.findSummariesBefore(
+                CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, UserSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<UserDTO> findByRole(Role role, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<UserSummary> rows = userRepository.findSummariesByRoleBefore(
+                role, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, UserSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<UserDTO> findByDepartmentId(Long departmentId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<UserSummary> rows = userRepository.findSummariesByDepartmentIdBefore(
+                departmentId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, UserSummary::getId, this::convertToDTO);
+    }
+
+    public CursorPageDTO<UserDTO> findBySchoolId(Long schoolId, String cursor, Integer size) {
+        int pageSize = CursorUtils.pageSize(size);
+        List<UserSummary> rows = userRepository.findSummariesBySchoolIdBefore(
+                schoolId, CursorUtils.decode(cursor), CursorUtils.limitFor(pageSize));
+        return CursorUtils.toPage(rows, pageSize, UserSummary::getId, this::convertToDTO);
+    }
+
     private UserProfileDTO convertToProfileDTO(User user) {
         UserProfileDTO dto = new UserProfileDTO();
         dto.setId(user.getId());
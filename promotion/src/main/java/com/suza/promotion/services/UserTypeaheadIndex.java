@@ -0,0 +1,259 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.UserDTO;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over user names, emails and employee ids for typeahead
+ * boxes. Every token is kept in one sorted array, so a prefix lookup is a binary
+ * search followed by a scan over the matching run. Readers use an immutable
+ * snapshot; a write merges its tokens into a copy and swaps it in, a linear pass
+ * with no re-sort.
+ */
+@Service
+public class UserTypeaheadIndex {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final UserRepository userRepository;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    public UserTypeaheadIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Loaded once startup, including seeding, is done
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        entries.clear();
+        for (User user : userRepository.findAllWithOrganisation()) {
+            entries.put(user.getId(), new Entry(user));
+        }
+        snapshot = Snapshot.build(entries.values());
+    }
+
+    // Call after a user is saved; department and school must be loaded or null. Replaces any earlier entry.
+    public synchronized void put(User user) {
+        Entry entry = new Entry(user);
+        Entry previous = entries.put(user.getId(), entry);
+        snapshot = snapshot.replace(previous, entry);
+    }
+
+    /**
+     * Users for whom every word of {@code query} is a prefix of their name, email
+     * or employee id, optionally within a role, school or department. Names that
+     * start with the query come first, then the rest alphabetically.
+     */
+    public List<UserDTO> search(String query, User.Role role, Long schoolId, Long departmentId, Integer limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0) {
+            return List.of();
+        }
+        int max = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        // Scan the run of the most selective word; the others are checked per candidate
+        Snapshot current = snapshot;
+        int from = 0;
+        int to = Integer.MAX_VALUE;
+        for (String term : terms) {
+            int start = current.lowerBound(term);
+            int end = current.lowerBound(term + Character.MAX_VALUE);
+            if (end - start < to - from) {
+                from = start;
+                to = end;
+            }
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        Set<Entry> seen = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            Entry entry = current.owners[i];
+            if (seen.add(entry) && entry.matches(terms, role, schoolId, departmentId)) {
+                matches.add(entry);
+            }
+        }
+
+        String fullQuery = String.join(" ", terms);
+        matches.sort(Comparator.comparing((Entry entry) -> !entry.normalizedName.startsWith(fullQuery))
+                .thenComparing(entry -> entry.normalizedName));
+        return matches.stream().limit(max).map(Entry::toDTO).toList();
+    }
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).strip();
+    }
+
+    private static String[] terms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        String normalized = normalize(query);
+        return normalized.isEmpty() ? new String[0] : normalized.split("\\s+");
+    }
+
+    private static final class Entry {
+        final Long id;
+        final String name;
+        final String normalizedName;
+        final String email;
+        final User.Role role;
+        final Long departmentId;
+        final String departmentName;
+        final Long schoolId;
+        final String schoolName;
+        final String[] tokens;
+
+        Entry(User user) {
+            id = user.getId();
+            name = user.getFullName();
+            normalizedName = normalize(user.getFullName());
+            email = user.getEmail();
+            role = user.getRole();
+            departmentId = user.getDepartment() != null ? user.getDepartment().getId() : null;
+            departmentName = user.getDepartment() != null ? user.getDepartment().getName() : null;
+            schoolId = user.getSchool() != null ? user.getSchool().getId() : null;
+            schoolName = user.getSchool() != null ? user.getSchool().getName() : null;
+
+            // Name words, the whole email and its parts, and the employee id
+            Set<String> words = new LinkedHashSet<>();
+            words.addAll(Arrays.asList(WORD_SEPARATOR.split(normalizedName)));
+            String normalizedEmail = normalize(user.getEmail());
+            words.add(normalizedEmail);
+            words.addAll(Arrays.asList(WORD_SEPARATOR.split(normalizedEmail)));
+            if (user.getEmployeeId() != null) {
+                words.add(normalize(user.getEmployeeId()));
+            }
+            words.remove("");
+            tokens = words.toArray(String[]::new);
+        }
+
+        boolean matches(String[] terms, User.Role role, Long schoolId, Long departmentId) {
+            if ((role != null && role != this.role)
+                    || (schoolId != null && !schoolId.equals(this.schoolId))
+                    || (departmentId != null && !departmentId.equals(this.departmentId))) {
+                return false;
+            }
+            for (String term : terms) {
+                if (!hasTokenStartingWith(term)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean hasTokenStartingWith(String prefix) {
+            for (String token : tokens) {
+                if (token.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        UserDTO toDTO() {
+            UserDTO dto = new UserDTO();
+            dto.setId(id);
+            dto.setName(name);
+            dto.setEmail(email);
+            dto.setRole(role.name());
+            dto.setDepartmentName(departmentName);
+            dto.setSchoolName(schoolName);
+            return dto;
+        }
+    }
+
+    // Parallel arrays: tokens sorted, owners[i] the entry tokens[i] belongs to
+    private static final class Snapshot {
+        final String[] tokens;
+        final Entry[] owners;
+
+        private Snapshot(String[] tokens, Entry[] owners) {
+            this.tokens = tokens;
+            this.owners = owners;
+        }
+
+        static Snapshot build(Iterable<Entry> source) {
+            List<Map.Entry<String, Entry>> pairs = new ArrayList<>();
+            for (Entry entry : source) {
+                for (String token : entry.tokens) {
+                    pairs.add(Map.entry(token, entry));
+                }
+            }
+            pairs.sort(Map.Entry.comparingByKey());
+
+            String[] tokens = new String[pairs.size()];
+            Entry[] owners = new Entry[pairs.size()];
+            for (int i = 0; i < pairs.size(); i++) {
+                tokens[i] = pairs.get(i).getKey();
+                owners[i] = pairs.get(i).getValue();
+            }
+            return new Snapshot(tokens, owners);
+        }
+
+        /**
+         * A copy without the tokens of {@code removed} and with those of {@code added},
+         * made in one merge pass rather than a full sort. {@code removed} may be null.
+         */
+        Snapshot replace(Entry removed, Entry added) {
+            String[] addedTokens = added.tokens.clone();
+            Arrays.sort(addedTokens);
+            int size = tokens.length + addedTokens.length - (removed != null ? removed.tokens.length : 0);
+            String[] mergedTokens = new String[size];
+            Entry[] mergedOwners = new Entry[size];
+
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < tokens.length || j < addedTokens.length) {
+                if (i < tokens.length && owners[i] == removed) {
+                    i++;
+                } else if (j == addedTokens.length
+                        || (i < tokens.length && tokens[i].compareTo(addedTokens[j]) <= 0)) {
+                    mergedTokens[k] = tokens[i];
+                    mergedOwners[k++] = owners[i++];
+                } else {
+                    mergedTokens[k] = addedTokens[j++];
+                    mergedOwners[k++] = added;
+                }
+            }
+            return new Snapshot(mergedTokens, mergedOwners);
+        }
+
+        // First index whose token is >= prefix; every match of the prefix follows it
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = tokens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tokens[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.suza.promotion.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Where uploaded bytes live. Writers fill a local staging file and then commit
+ * it under a key, which publishes it in one atomic step, so readers never see
+ * a partly written blob. Everything after that goes through the key: callers
+ * persist the key, never a location, so an implementation may keep blobs
+ * anywhere it can stream them back from.
+ */
+public interface BlobStorage {
+
+    // A new, empty staging file with a unique name
+    Path createStagingFile() throws IOException;
+
+    // The staging file for a long-running write such as a resumable upload; not created
+    Path stagingFile(String id) throws IOException;
+
+    // Publishes a finished staging file under key, replacing any previous content; the staging file is gone afterwards
+    void commit(Path stagingFile, String key) throws IOException;
+
+    boolean exists(String key);
+
+    long size(String key) throws IOException;
+
+    InputStream open(String key) throws IOException;
+
+    // The blob as a local file, for zero-copy sends and random-access readers; empty when it has none
+    Optional<Path> resolve(String key);
+
+    void delete(String key) throws IOException;
+}
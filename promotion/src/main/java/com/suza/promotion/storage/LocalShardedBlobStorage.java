@@ -0,0 +1,90 @@
+package com.suza.promotion.storage;
+
+import com.suza.promotion.util.TimeOrderedIds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Blobs under the upload directory, sharded two levels deep on the first four
+ * characters of the key (blobs/ab/cd/abcd...). Keys are lowercase hex digests,
+ * giving 65,536 directories that each stay small as the store grows. Staging files sit
+ * in tmp/ on the same file system so that commit is a rename.
+ */
+@Component
+public class LocalShardedBlobStorage implements BlobStorage {
+    private final Path blobRoot;
+    private final Path stagingRoot;
+
+    public LocalShardedBlobStorage(@Value("${file.upload-dir}") String uploadDir) {
+        this.blobRoot = Paths.get(uploadDir, "blobs");
+        this.stagingRoot = Paths.get(uploadDir, "tmp");
+    }
+
+    @Override
+    public Path createStagingFile() throws IOException {
+        Path file = stagingFile(TimeOrderedIds.next().toString());
+        return Files.createFile(file);
+    }
+
+    @Override
+    public Path stagingFile(String id) throws IOException {
+        if (!id.matches("[0-9A-Za-z-]+")) {
+            throw new IllegalArgumentException("Invalid staging id");
+        }
+        Files.createDirectories(stagingRoot);
+        return stagingRoot.resolve(id + ".part");
+    }
+
+    @Override
+    public void commit(Path stagingFile, String key) throws IOException {
+        Path target = locate(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(stagingFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(stagingFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(locate(key));
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(locate(key));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(locate(key));
+    }
+
+    @Override
+    public Optional<Path> resolve(String key) {
+        Path path = locate(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(locate(key));
+    }
+
+    private Path locate(String key) {
+        if (key.length() < 4 || !key.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Invalid blob key");
+        }
+        return blobRoot.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
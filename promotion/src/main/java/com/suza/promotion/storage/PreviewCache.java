@@ -0,0 +1,110 @@
+package com.suza.promotion.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Rendered previews on disk, bounded by total size. Entries are tracked in
+ * access order and the least recently used files are deleted once the limit is
+ * passed. After a restart the order is rebuilt from file modification times.
+ */
+@Component
+public class PreviewCache {
+    private final Path root;
+    private final long maxBytes;
+    // name -> size, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public PreviewCache(@Value("${file.upload-dir}") String uploadDir,
+                        @Value("${preview.cache.max-size:256MB}") DataSize maxSize) throws IOException {
+        this.root = Paths.get(uploadDir, "previews");
+        this.maxBytes = maxSize.toBytes();
+        Files.createDirectories(root);
+        try (Stream<Path> files = Files.list(root)) {
+            files.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(PreviewCache::lastModified))
+                    .forEach(file -> {
+                        if (file.getFileName().toString().endsWith(".tmp")) {
+                            // Left by a write the previous run never finished
+                            file.toFile().delete();
+                            return;
+                        }
+                        long size = file.toFile().length();
+                        entries.put(file.getFileName().toString(), size);
+                        totalBytes += size;
+                    });
+        }
+        evict();
+    }
+
+    // Previews are small, so they are read whole; holding the lock keeps eviction from racing the read
+    public synchronized Optional<byte[]> read(String name) throws IOException {
+        if (entries.get(name) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Files.readAllBytes(root.resolve(name)));
+    }
+
+    public synchronized boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    // Written under a temporary name and renamed, so readers never see half a file
+    public void put(String name, byte[] content) throws IOException {
+        Path target = root.resolve(name);
+        Path tmp = Files.createTempFile(root, name, ".tmp");
+        Files.write(tmp, content);
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        synchronized (this) {
+            Long previous = entries.put(name, (long) content.length);
+            totalBytes += content.length - (previous != null ? previous : 0);
+            evict();
+        }
+    }
+
+    public synchronized void remove(String name) throws IOException {
+        Long size = entries.remove(name);
+        if (size != null) {
+            Files.deleteIfExists(root.resolve(name));
+            totalBytes -= size;
+        }
+    }
+
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            Files.deleteIfExists(root.resolve(entry.getKey()));
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.suza.promotion.util;
+
+import java.time.Duration;
+
+/**
+ * Exponential retry delays: the initial delay doubles with every failed
+ * attempt, capped at the maximum.
+ */
+public final class Backoff {
+
+    private Backoff() {}
+
+    public static Duration delay(int attempts, Duration initial, Duration max) {
+        int doublings = Math.max(0, Math.min(attempts - 1, 30));
+        long millis = initial.toMillis() << doublings;
+        return millis <= 0 || millis > max.toMillis() ? max : Duration.ofMillis(millis);
+    }
+}
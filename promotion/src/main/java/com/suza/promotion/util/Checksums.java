@@ -0,0 +1,45 @@
+package com.suza.promotion.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class Checksums {
+    private static final int BUFFER_SIZE = 8192;
+
+    private Checksums() {}
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Hashes a file with a fixed-size buffer, never loading it whole
+    public static String sha256Hex(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return sha256Hex(in);
+        }
+    }
+
+    // Hashes the rest of a stream the same way; the caller closes it
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return hex(digest);
+    }
+}
@@ -0,0 +1,90 @@
+package com.suza.promotion.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Works out a file's type from its leading bytes rather than trusting the type
+ * the browser sent, which is usually guessed from the file extension.
+ */
+public final class ContentTypes {
+    // Enough for every signature below
+    public static final int SNIFF_LENGTH = 8;
+
+    public static final String OCTET_STREAM = "application/octet-stream";
+
+    private static final byte[] PDF = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] GIF = "GIF8".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RTF = "{\\rtf".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZIP = {'P', 'K', 0x03, 0x04};
+    private static final byte[] OLE2 = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0,
+            (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    private ContentTypes() {}
+
+    /**
+     * The type indicated by the first {@code length} bytes of {@code head}. Office
+     * files share the ZIP and OLE2 containers, so for those the declared type is
+     * kept when it names a format stored that way.
+     */
+    public static String sniff(byte[] head, int length, String declared) {
+        byte[] bytes = Arrays.copyOf(head, length);
+        if (startsWith(bytes, PDF)) return "application/pdf";
+        if (startsWith(bytes, PNG)) return "image/png";
+        if (startsWith(bytes, JPEG)) return "image/jpeg";
+        if (startsWith(bytes, GIF)) return "image/gif";
+        if (startsWith(bytes, RTF)) return "application/rtf";
+        if (startsWith(bytes, ZIP)) {
+            return declared != null && (declared.startsWith("application/vnd.openxmlformats-officedocument.")
+                    || declared.startsWith("application/vnd.oasis.opendocument."))
+                    ? declared : "application/zip";
+        }
+        if (startsWith(bytes, OLE2)) {
+            return declared != null && (declared.equals("application/msword")
+                    || declared.startsWith("application/vnd.ms-"))
+                    ? declared : "application/x-ole-storage";
+        }
+        if (isText(bytes)) {
+            return declared != null && declared.startsWith("text/") ? declared : "text/plain";
+        }
+        return OCTET_STREAM;
+    }
+
+    /**
+     * False for formats that are compressed already (images, archives, Office
+     * Open XML and the like), where compressing again only costs CPU.
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String type = contentType.toLowerCase();
+        if (type.startsWith("image/") && !type.startsWith("image/svg") && !type.startsWith("image/bmp")) {
+            return false;
+        }
+        return !(type.startsWith("audio/") || type.startsWith("video/")
+                || type.startsWith("application/zip") || type.startsWith("application/gzip")
+                || type.startsWith("application/x-7z") || type.startsWith("application/x-rar")
+                || type.startsWith("application/vnd.openxmlformats-officedocument.")
+                || type.startsWith("application/vnd.oasis.opendocument."));
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        return bytes.length >= prefix.length && Arrays.equals(bytes, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    // No control characters other than whitespace; bytes above 0x7F may be UTF-8
+    private static boolean isText(byte[] bytes) {
+        if (bytes.length == 0) {
+            return false;
+        }
+        for (byte b : bytes) {
+            if (b >= 0 && b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
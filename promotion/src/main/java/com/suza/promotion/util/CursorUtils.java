@@ -0,0 +1,101 @@
+package com.suza.promotion.util;
+
+import com.suza.promotion.dto.CursorPageDTO;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for keyset (cursor) pagination. Pages are ordered by id descending and
+ * the next page is fetched with "id < last id", so the cost of a page does not grow
+ * with how far the client has scrolled the way an OFFSET query does. Pages sorted
+ * on another column carry that column's value as well, with the id breaking ties.
+ */
+public final class CursorUtils {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PREFIX = "id:";
+    private static final String KEY_PREFIX = "key:";
+
+    private CursorUtils() {}
+
+    public static int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    // One extra row is fetched to know whether another page exists
+    public static Limit limitFor(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encodeKey(String value, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((KEY_PREFIX + value + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns {value, id} or null for the first page
+    public static String[] decodeKey(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (!raw.startsWith(KEY_PREFIX) || separator < KEY_PREFIX.length()) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Long.parseLong(raw.substring(separator + 1));
+            return new String[] { raw.substring(KEY_PREFIX.length(), separator), raw.substring(separator + 1) };
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static <E, D> CursorPageDTO<D> toPage(List<E> rows, int pageSize,
+                                                 Function<E, Long> idOf, Function<E, D> mapper) {
+        return toKeyedPage(rows, pageSize, row -> encode(idOf.apply(row)), mapper);
+    }
+
+    public static <E, D> CursorPageDTO<D> toKeyedPage(List<E> rows, int pageSize,
+                                                      Function<E, String> cursorOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+
+        CursorPageDTO<D> page = new CursorPageDTO<>();
+        page.setItems(pageRows.stream().map(mapper).collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        page.setSize(pageRows.size());
+        if (hasMore) {
+            page.setNextCursor(cursorOf.apply(pageRows.get(pageRows.size() - 1)));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,52 @@
+package com.suza.promotion.util;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations in seconds with log-spaced buckets, each 2% wider than
+ * the last. Percentiles read back are within about 1% of the exact value, and
+ * memory stays at a few hundred counters (durations up to years) no matter how
+ * many values are recorded.
+ */
+public final class DurationHistogram {
+    private static final double GROWTH = 1.02;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+
+    private int[] counts = new int[64];
+    private long total;
+    private long max;
+
+    public void record(long seconds) {
+        long value = Math.max(0, seconds);
+        int index = (int) (Math.log1p(value) / LOG_GROWTH);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    public long count() { return total; }
+
+    public long max() { return max; }
+
+    /**
+     * Value at or below which {@code fraction} of the recorded durations fall,
+     * taken as the geometric middle of the bucket holding that rank.
+     */
+    public long percentile(double fraction) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, Math.round(Math.pow(GROWTH, i + 0.5) - 1));
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,35 @@
+package com.suza.promotion.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Version 7 UUIDs: a millisecond timestamp, a counter that keeps ids issued in
+ * the same millisecond in order, then random bits. Ids sort by creation time and
+ * cannot collide the way timestamp-based file names did.
+ */
+public final class TimeOrderedIds {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_SEQUENCE = 0xFFF;
+
+    private static long lastMillis;
+    private static int sequence;
+
+    private TimeOrderedIds() {}
+
+    public static synchronized UUID next() {
+        long now = System.currentTimeMillis();
+        if (now > lastMillis) {
+            lastMillis = now;
+            // Random start within the lower half leaves room to count up
+            sequence = RANDOM.nextInt(MAX_SEQUENCE / 2);
+        } else if (++sequence > MAX_SEQUENCE) {
+            // Counter exhausted, or the clock went back: borrow the next millisecond
+            lastMillis++;
+            sequence = 0;
+        }
+        long msb = (lastMillis << 16) | (0x7L << 12) | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
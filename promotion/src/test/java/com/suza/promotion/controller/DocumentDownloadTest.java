@@ -0,0 +1,288 @@
+package com.suza.promotion.controller;
+
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.repository.DocumentRepository;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.services.DocumentService;
+import com.suza.promotion.services.PromotionRequestService;
+import com.suza.promotion.util.Checksums;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Range, conditional and Content-Encoding handling of the download endpoint, and the
+ * per-request ZIP bundle.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class DocumentDownloadTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private DocumentService documentService;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PromotionRequestRepository promotionRequestRepository;
+    @Autowired private DocumentRepository documentRepository;
+
+    private Long staffId;
+    private Long requestId;
+
+    @BeforeEach
+    void setUp() {
+        staffId = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow().getId();
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank("Lecturer");
+        requestId = promotionRequestService.createRequest(dto, staffId).getId();
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws Exception {
+        byte[] content = binary(5000);
+        String url = download(upload(content));
+
+        MockHttpServletResponse response = mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andReturn().getResponse();
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/5000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixRangeReturnsTheLastBytes() throws Exception {
+        byte[] content = binary(5000);
+        String url = download(upload(content));
+
+        MockHttpServletResponse response = mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-100"))
+                .andReturn().getResponse();
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 4900-4999/5000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 4900, 5000), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws Exception {
+        String url = download(upload(binary(5000)));
+
+        MockHttpServletResponse response = mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andReturn().getResponse();
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */5000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void staleIfRangeSendsTheWholeFile() throws Exception {
+        byte[] content = binary(5000);
+        String url = download(upload(content));
+
+        MockHttpServletResponse response = mvc.perform(get(url)
+                        .header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, "\"not-the-current-etag\""))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void matchingIfRangeHonoursTheRange() throws Exception {
+        byte[] content = binary(5000);
+        String url = download(upload(content));
+        String etag = mvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = mvc.perform(get(url)
+                        .header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, etag))
+                .andReturn().getResponse();
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), response.getContentAsByteArray());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        String url = download(upload(binary(5000)));
+        String etag = mvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        MockHttpServletResponse response = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void compressedFileIsPassedThroughToGzipClients() throws Exception {
+        byte[] content = text(20_000);
+        String url = download(upload(content));
+
+        MockHttpServletResponse response = mvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeader(HttpHeaders.ETAG).endsWith("-gzip\""));
+        byte[] sent = response.getContentAsByteArray();
+        assertTrue(sent.length < content.length);
+        assertArrayEquals(content, gunzip(sent));
+    }
+
+    @Test
+    void compressedFileIsInflatedForOtherClients() throws Exception {
+        byte[] content = text(20_000);
+        String url = download(upload(content));
+
+        MockHttpServletResponse whole = mvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andReturn().getResponse();
+        assertEquals(200, whole.getStatus());
+        assertNull(whole.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(content.length, whole.getContentLength());
+        assertArrayEquals(content, whole.getContentAsByteArray());
+
+        // Ranges apply to the inflated content
+        MockHttpServletResponse part = mvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=1000-1099"))
+                .andReturn().getResponse();
+        assertEquals(206, part.getStatus());
+        assertEquals("bytes 1000-1099/" + content.length, part.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 1100), part.getContentAsByteArray());
+    }
+
+    @Test
+    void documentStoredBeforeTheBlobStoreIsReadFromItsPath() throws Exception {
+        byte[] content = binary(3000);
+        Path file = Files.createDirectories(Path.of("target/test-uploads/legacy"))
+                .resolve(UUID.randomUUID() + ".bin").toAbsolutePath();
+        Files.write(file, content);
+        Document document = new Document();
+        document.setPromotionRequest(promotionRequestRepository.getReferenceById(requestId));
+        document.setUploadedBy(userRepository.getReferenceById(staffId));
+        document.setOriginalName("old.bin");
+        document.setStoredName(file.getFileName().toString());
+        document.setFilePath(file.toString());
+        document.setFileSize((long) content.length);
+        document.setDocumentType(Document.DocumentType.CV);
+        document.setUploadedAt(LocalDateTime.now());
+        Long id = documentRepository.save(document).getId();
+
+        MockHttpServletResponse response = mvc.perform(get(download(id)).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andReturn().getResponse();
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+        // Hashed on first use, from the stream
+        assertEquals(Checksums.sha256Hex(file), documentRepository.findById(id).orElseThrow().getChecksum());
+    }
+
+    @Test
+    void bundleHoldsEveryDocumentInflatedAndListsMissingOnes() throws Exception {
+        byte[] text = text(20_000);
+        byte[] first = binary(2000);
+        byte[] second = binary(3000);
+        upload(text, "notes.txt");
+        upload(first, "cv.pdf");
+        upload(second, "cv.pdf");
+        Document lost = new Document();
+        lost.setPromotionRequest(promotionRequestRepository.getReferenceById(requestId));
+        lost.setUploadedBy(userRepository.getReferenceById(staffId));
+        lost.setOriginalName("lost.pdf");
+        lost.setStoredName("lost.pdf");
+        lost.setFilePath(Path.of("target/test-uploads/legacy", UUID.randomUUID() + ".pdf").toAbsolutePath().toString());
+        lost.setFileSize(10L);
+        lost.setDocumentType(Document.DocumentType.CV);
+        lost.setUploadedAt(LocalDateTime.now());
+        documentRepository.save(lost);
+
+        MockHttpServletResponse response = mvc.perform(get("/api/documents/request/" + requestId + "/zip"))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertEquals(List.of("notes.txt", "cv.pdf", "cv (2).pdf", "MISSING.txt"), List.copyOf(entries.keySet()));
+        // Stored gzipped, bundled as uploaded
+        assertArrayEquals(text, entries.get("notes.txt"));
+        assertArrayEquals(first, entries.get("cv.pdf"));
+        assertArrayEquals(second, entries.get("cv (2).pdf"));
+        assertTrue(new String(entries.get("MISSING.txt"), StandardCharsets.UTF_8).contains("lost.pdf"));
+    }
+
+    private Long upload(byte[] content) throws IOException {
+        return upload(content, "file.bin");
+    }
+
+    private Long upload(byte[] content, String name) throws IOException {
+        return documentService.uploadStream(new ByteArrayInputStream(content), content.length, requestId, staffId,
+                name, null, "CV", "test").getId();
+    }
+
+    private static String download(Long documentId) {
+        return "/api/documents/" + documentId + "/download";
+    }
+
+    // Starts with the ZIP signature so it is stored as is, never compressed
+    private static byte[] binary(int length) {
+        byte[] bytes = new byte[length];
+        new Random().nextBytes(bytes);
+        bytes[0] = 'P';
+        bytes[1] = 'K';
+        bytes[2] = 0x03;
+        bytes[3] = 0x04;
+        return bytes;
+    }
+
+    // Repetitive, so it is stored gzipped; random words keep each call's content unique
+    private static byte[] text(int length) {
+        Random random = new Random();
+        StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            text.append("line ").append(random.nextInt(100)).append(" of the promotion dossier\n");
+        }
+        return text.substring(0, length).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.suza.promotion.controller;
+
+import com.suza.promotion.dto.BroadcastNotificationDTO;
+import com.suza.promotion.dto.NotificationDTO;
+import com.suza.promotion.dto.RegisterUserDTO;
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.event.NotificationCreatedEvent;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.services.NotificationService;
+import com.suza.promotion.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Server-Sent Events delivery: Last-Event-ID replay, at-least-once dedup when
+ * ids arrive out of order, broadcast catch-up and the per-user stream cap.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class NotificationStreamTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private NotificationService notificationService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser(User.Role.ACADEMIC);
+    }
+
+    @Test
+    void reconnectReplaysWhatWasMissedThenGoesLive() throws Exception {
+        Long seen = notify(user);
+        Long second = notify(user);
+        Long third = notify(user);
+
+        MvcResult stream = open(user, seen);
+        Long live = notify(user);
+        await(stream, live);
+
+        assertEquals(List.of(second, third, live), ids(stream));
+    }
+
+    @Test
+    void idsArrivingOutOfOrderAreSentOnceEach() throws Exception {
+        Long lower = notify(user);
+        Long higher = notify(user);
+        MvcResult stream = open(user, null);
+
+        // The higher id committed first; the lower one is still new to this stream
+        publish(higher);
+        publish(lower);
+        publish(higher);
+        Long last = notify(user);
+        await(stream, last);
+
+        assertEquals(List.of(higher, lower, last), ids(stream));
+    }
+
+    @Test
+    void broadcastReachesConnectedUsers() throws Exception {
+        User hr = newUser(User.Role.HR);
+        MvcResult stream = open(hr, null);
+
+        BroadcastNotificationDTO dto = new BroadcastNotificationDTO();
+        dto.setTitle("Payroll " + UUID.randomUUID());
+        dto.setMessage("Promotion arrears are in this month's payroll");
+        dto.setRole("hr");
+        notificationService.broadcast(dto);
+
+        for (int i = 0; i < 100 && !content(stream).contains(dto.getTitle()); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(content(stream).contains(dto.getTitle()));
+        assertEquals(1, ids(stream).size());
+    }
+
+    @Test
+    void sixthStreamClosesTheOldest() throws Exception {
+        List<MvcResult> streams = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            streams.add(open(user, null));
+        }
+
+        Long id = notify(user);
+
+        for (MvcResult stream : streams.subList(1, 6)) {
+            await(stream, id);
+            assertEquals(List.of(id), ids(stream));
+        }
+        assertEquals(List.of(), ids(streams.get(0)));
+    }
+
+    private MvcResult open(User recipient, Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder get = get("/api/notifications/user/" + recipient.getId() + "/stream");
+        if (lastEventId != null) {
+            get.header("Last-Event-ID", lastEventId);
+        }
+        return mvc.perform(get).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private Long notify(User recipient) {
+        return notificationService.notifyUser(recipient, null, Notification.NotificationType.SYSTEM_NOTIFICATION,
+                "Notice", "Body").getId();
+    }
+
+    // Sends the event again for an existing row, as a late or repeated commit would
+    private void publish(Long id) {
+        NotificationDTO notification = notificationService.getUserNotifications(user.getId()).stream()
+                .filter(candidate -> candidate.getId().equals(id))
+                .findFirst()
+                .orElseThrow();
+        eventPublisher.publishEvent(new NotificationCreatedEvent(user.getId(), notification));
+    }
+
+    // Events are pushed in the background
+    private static void await(MvcResult stream, Long id) throws Exception {
+        for (int i = 0; i < 100 && !ids(stream).contains(id); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(ids(stream).contains(id), "event " + id + " not received");
+    }
+
+    private static List<Long> ids(MvcResult stream) throws Exception {
+        return content(stream).lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> Long.valueOf(line.substring(3)))
+                .toList();
+    }
+
+    private static String content(MvcResult stream) throws Exception {
+        return stream.getResponse().getContentAsString();
+    }
+
+    private User newUser(User.Role role) {
+        RegisterUserDTO dto = new RegisterUserDTO();
+        dto.setFullName("Stream Test");
+        dto.setEmail("stream-" + UUID.randomUUID() + "@suza.ac.tz");
+        dto.setRole(role.name());
+        return userRepository.findById(userService.registerUser(dto).getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.suza.promotion.controller;
+
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.services.PromotionRequestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PromotionRequestExportTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private PromotionRequestRepository promotionRequestRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void csvRowsAreEscapedAndFormulasNeutralised() throws Exception {
+        Long id = submittedOn(LocalDateTime.of(2001, 3, 15, 10, 30), "=HYPERLINK(\"http://x\",\"cv\")");
+
+        String csv = mvc.perform(get("/api/promotion-requests/export")
+                        .param("from", "2001-03-15").param("to", "2001-03-15"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"promotion-requests.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,status,applicant_name"));
+        assertTrue(lines[1].startsWith(id + ",SUBMITTED,"));
+        assertTrue(lines[1].contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"cv\"\")\","), lines[1]);
+    }
+
+    @Test
+    void dateRangeIsInclusiveAndNdjsonHasOneLinePerRow() throws Exception {
+        submittedOn(LocalDateTime.of(2002, 6, 1, 0, 0), "first day");
+        submittedOn(LocalDateTime.of(2002, 6, 30, 23, 59), "last day");
+        submittedOn(LocalDateTime.of(2002, 7, 1, 0, 0), "next month");
+
+        String ndjson = mvc.perform(get("/api/promotion-requests/export").param("format", "ndjson")
+                        .param("from", "2002-06-01").param("to", "2002-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"justification\":\"first day\""));
+        assertTrue(lines[1].contains("\"justification\":\"last day\""));
+    }
+
+    @Test
+    void badParametersAreRejectedBeforeStreaming() throws Exception {
+        mvc.perform(get("/api/promotion-requests/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/promotion-requests/export").param("status", "PENDING"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/promotion-requests/export").param("from", "2003-02-01").param("to", "2003-01-31"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long submittedOn(LocalDateTime submissionDate, String justification) {
+        Long staffId = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow().getId();
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank("Lecturer");
+        Long id = promotionRequestService.createRequest(dto, staffId).getId();
+        PromotionRequest request = promotionRequestRepository.findById(id).orElseThrow();
+        request.setStatus(PromotionRequest.Status.SUBMITTED);
+        request.setSubmissionDate(submissionDate);
+        request.setJustification(justification);
+        promotionRequestRepository.save(request);
+        return id;
+    }
+}
@@ -0,0 +1,84 @@
+package com.suza.promotion.controller;
+
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.SearchHitDTO;
+import com.suza.promotion.dto.SearchResultsDTO;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.services.DocumentService;
+import com.suza.promotion.services.PromotionRequestService;
+import com.suza.promotion.services.SearchIndexService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SearchControllerTest {
+
+    @Autowired private MockMvc mvc;
+    @Autowired private SearchIndexService searchIndexService;
+    @Autowired private DocumentService documentService;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void requestsAndDocumentTextAreIndexedOnCommit() throws Exception {
+        String word = token();
+        Long staffId = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow().getId();
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank("Lecturer " + word);
+        Long requestId = promotionRequestService.createRequest(dto, staffId).getId();
+        byte[] text = ("Teaching portfolio mentioning " + word).getBytes(StandardCharsets.UTF_8);
+        Long documentId = documentService.uploadStream(new ByteArrayInputStream(text), text.length, requestId,
+                staffId, "portfolio.txt", "text/plain", "CV", "test").getId();
+
+        SearchResultsDTO results = awaitHits(word, null, 2);
+
+        assertEquals(2, results.getTotal());
+        SearchResultsDTO documents = searchIndexService.search(word, SearchIndexService.DOCUMENT, 0, null);
+        assertEquals(1, documents.getTotal());
+        SearchHitDTO hit = documents.getHits().get(0);
+        assertEquals(documentId, hit.getId());
+        assertEquals(requestId, hit.getRequestId());
+    }
+
+    @Test
+    void unknownKindIsBadRequest() throws Exception {
+        mvc.perform(get("/api/search").param("q", "lecturer").param("kind", "user"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pagePastTheResultCapIsBadRequest() throws Exception {
+        mvc.perform(get("/api/search").param("q", "lecturer").param("page", "50").param("size", "20"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/search").param("q", "lecturer").param("page", "0"))
+                .andExpect(status().isOk());
+    }
+
+    // Indexing runs in the background after commit
+    private SearchResultsDTO awaitHits(String query, String kind, int expected) throws Exception {
+        SearchResultsDTO results = searchIndexService.search(query, kind, 0, null);
+        for (int i = 0; i < 100 && results.getTotal() < expected; i++) {
+            Thread.sleep(100);
+            results = searchIndexService.search(query, kind, 0, null);
+        }
+        return results;
+    }
+
+    // Letters only, so the analyzer keeps it as one term
+    private static String token() {
+        return "zz" + UUID.randomUUID().toString().replaceAll("[^a-f]", "");
+    }
+}
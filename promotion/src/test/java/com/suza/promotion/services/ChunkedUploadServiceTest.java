@@ -0,0 +1,177 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.DocumentDTO;
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.UploadSessionDTO;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.exception.UploadOffsetMismatchException;
+import com.suza.promotion.repository.UploadSessionRepository;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.storage.BlobStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Resuming, completing and failing to complete resumable uploads.
+ */
+@SpringBootTest
+class ChunkedUploadServiceTest {
+    private static final int SIZE = 10_000;
+
+    @Autowired private ChunkedUploadService chunkedUploadService;
+    @Autowired private DocumentService documentService;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private UploadSessionRepository uploadSessionRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BlobStorage blobStorage;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Long staffId;
+    private Long requestId;
+
+    @BeforeEach
+    void setUp() {
+        staffId = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow().getId();
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank("Lecturer");
+        requestId = promotionRequestService.createRequest(dto, staffId).getId();
+    }
+
+    @Test
+    void uploadResumesFromTheReceivedOffsetAndCompletes() throws Exception {
+        byte[] content = content();
+        String uploadId = initiate("cv.bin");
+
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(content, 0, 4000));
+        UploadOffsetMismatchException mismatch = assertThrows(UploadOffsetMismatchException.class,
+                () -> chunkedUploadService.appendChunk(uploadId, 3000, chunk(content, 3000, 5000)));
+        assertEquals(4000, mismatch.getCurrentOffset());
+        assertEquals(4000, chunkedUploadService.getProgress(uploadId).getOffset());
+
+        UploadSessionDTO progress = chunkedUploadService.appendChunk(uploadId, 4000, chunk(content, 4000, SIZE));
+        assertTrue(progress.isComplete());
+
+        DocumentDTO document = chunkedUploadService.complete(uploadId);
+        Document stored = documentService.getDocument(document.getId());
+        assertEquals(stored.getStoredName(), stored.getStorageKey());
+        try (InputStream in = documentService.openContent(stored)) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertFalse(uploadSessionRepository.existsById(uploadId));
+        assertFalse(Files.exists(blobStorage.stagingFile(uploadId)));
+    }
+
+    @Test
+    void appendingAChunkKeepsTheUploadClearOfTheExpirySweep() throws Exception {
+        byte[] content = content();
+        String uploadId = initiate("cv.bin");
+        LocalDateTime stale = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update("update upload_sessions set updated_at = ? where id = ?", stale, uploadId);
+
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(content, 0, 1000));
+
+        assertTrue(uploadSessionRepository.findById(uploadId).orElseThrow().getUpdatedAt().isAfter(stale));
+        assertEquals(0, uploadSessionRepository.touch("no-such-upload", LocalDateTime.now()));
+    }
+
+    @Test
+    void incompleteUploadCannotBeCompleted() throws Exception {
+        byte[] content = content();
+        String uploadId = initiate("cv.bin");
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(content, 0, 1000));
+
+        assertThrows(UploadOffsetMismatchException.class, () -> chunkedUploadService.complete(uploadId));
+        assertEquals(1000, chunkedUploadService.getProgress(uploadId).getOffset());
+    }
+
+    @Test
+    void failedCompleteKeepsTheReceivedBytes() throws Exception {
+        byte[] content = content();
+        // A blank name fails Document validation after the file has been stored
+        String uploadId = initiate(" ");
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(content, 0, SIZE));
+
+        assertThrows(RuntimeException.class, () -> chunkedUploadService.complete(uploadId));
+
+        assertTrue(uploadSessionRepository.existsById(uploadId));
+        assertArrayEquals(content, Files.readAllBytes(blobStorage.stagingFile(uploadId)));
+        assertTrue(chunkedUploadService.getProgress(uploadId).isComplete());
+    }
+
+    @Test
+    void concurrentCompletesCreateOneDocument() throws Exception {
+        byte[] content = content();
+        String uploadId = initiate("cv.bin");
+        chunkedUploadService.appendChunk(uploadId, 0, chunk(content, 0, SIZE));
+
+        CyclicBarrier start = new CyclicBarrier(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        List<Future<DocumentDTO>> completes = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                completes.add(pool.submit(() -> {
+                    start.await();
+                    return chunkedUploadService.complete(uploadId);
+                }));
+            }
+            int created = 0;
+            int notFound = 0;
+            for (Future<DocumentDTO> complete : completes) {
+                try {
+                    complete.get(30, TimeUnit.SECONDS);
+                    created++;
+                } catch (ExecutionException ex) {
+                    assertInstanceOf(ResourceNotFoundException.class, ex.getCause());
+                    notFound++;
+                }
+            }
+            assertEquals(1, created);
+            assertEquals(1, notFound);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, documentService.getDocumentsByRequest(requestId).size());
+    }
+
+    private String initiate(String filename) throws Exception {
+        return chunkedUploadService.initiate(requestId, staffId, filename, "application/octet-stream",
+                "CV", "test", SIZE).getUploadId();
+    }
+
+    private static InputStream chunk(byte[] content, int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(content, from, to));
+    }
+
+    private static byte[] content() {
+        byte[] bytes = new byte[SIZE];
+        new Random().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,174 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.CursorPageDTO;
+import com.suza.promotion.dto.DocumentDTO;
+import com.suza.promotion.dto.NotificationDTO;
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionRequestFilterDTO;
+import com.suza.promotion.dto.UserDTO;
+import com.suza.promotion.entity.Department;
+import com.suza.promotion.entity.Document;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.PromotionReview;
+import com.suza.promotion.entity.School;
+import com.suza.promotion.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every list path must cost a fixed number of statements no matter how many
+ * rows it returns, i.e. convertToDTO must never trigger a lazy load.
+ */
+@SpringBootTest
+@Transactional
+class ListQueryStatementCountTest {
+    private static final int ROWS = 10;
+
+    @Autowired private EntityManager entityManager;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private PromotionReviewService promotionReviewService;
+    @Autowired private DocumentService documentService;
+    @Autowired private NotificationService notificationService;
+    @Autowired private UserService userService;
+    @Autowired private DepartmentService departmentService;
+
+    private Statistics statistics;
+    private School school;
+    private Department department;
+    private User reviewer;
+    private PromotionRequest firstRequest;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        school = new School("Test School", "TST");
+        entityManager.persist(school);
+        department = new Department("Test Department", "TD", school);
+        entityManager.persist(department);
+        reviewer = user("Reviewer", "reviewer@test.tz", User.Role.HOD);
+
+        for (int i = 0; i < ROWS; i++) {
+            User applicant = user("Applicant " + i, "applicant" + i + "@test.tz", User.Role.ACADEMIC);
+            PromotionRequest request = new PromotionRequest(applicant, department, school, "Lecturer", "Senior Lecturer");
+            request.setStatus(PromotionRequest.Status.SUBMITTED);
+            entityManager.persist(request);
+            if (firstRequest == null) firstRequest = request;
+
+            entityManager.persist(new PromotionReview(request, reviewer, "Looks good", PromotionReview.Decision.RECOMMEND));
+
+            Document document = new Document(firstRequest, "cv" + i + ".pdf", "cv" + i + ".pdf",
+                    "/tmp/cv" + i + ".pdf", 10L, "application/pdf", applicant);
+            document.setDocumentType(Document.DocumentType.CV);
+            entityManager.persist(document);
+        }
+    }
+
+    @Test
+    void promotionRequestListsUseOneStatement() {
+        assertEquals(1, count(() -> promotionRequestService.getRequestsByStatus("SUBMITTED")));
+        assertEquals(1, count(() -> promotionRequestService.getRequestsBySchool(school.getId())));
+        assertEquals(1, count(() -> promotionRequestService.getRequestsByDepartment(department.getId())));
+        assertEquals(1, count(() -> promotionRequestService.getRequestsByStatus("SUBMITTED", null, 5)));
+
+        PromotionRequestFilterDTO filter = new PromotionRequestFilterDTO();
+        filter.setStatus(List.of("SUBMITTED", "HOD_REVIEWED"));
+        filter.setSchoolId(school.getId());
+        filter.setDepartmentId(department.getId());
+        filter.setAppliedRank(List.of("Senior Lecturer"));
+        assertEquals(1, count(() -> promotionRequestService.searchRequests(filter, null, 5)));
+    }
+
+    @Test
+    void reviewListsUseBoundedStatements() {
+        assertEquals(1, count(() -> promotionReviewService.getAllReviews()));
+        assertEquals(1, count(() -> promotionReviewService.findByDecision("RECOMMEND")));
+        // reviewer lookup + list
+        assertEquals(2, count(() -> promotionReviewService.findByReviewer(reviewer.getId())));
+        assertEquals(1, count(() -> promotionReviewService.findByReviewer(reviewer.getId(), null, 5)));
+    }
+
+    @Test
+    void documentListsUseOneStatement() {
+        assertEquals(1, count(() -> documentService.getDocumentsByRequest(firstRequest.getId())));
+        assertEquals(1, count(() -> documentService.getDocumentsByType("CV")));
+        assertEquals(1, count(() -> documentService.getDocumentsByRequest(firstRequest.getId(), null, 5)));
+    }
+
+    @Test
+    void userAndDepartmentListsUseOneStatement() {
+        assertEquals(1, count(() -> userService.getAllUsers()));
+        assertEquals(1, count(() -> userService.findByRole(User.Role.ACADEMIC)));
+        assertEquals(1, count(() -> userService.findBySchoolId(school.getId(), null, 5)));
+        assertEquals(1, count(() -> departmentService.getAllDepartments()));
+    }
+
+    @Test
+    void unreadCountIsOneLookup() {
+        Long[] ids = new Long[3];
+        for (int i = 0; i < ids.length; i++) {
+            NotificationDTO dto = new NotificationDTO();
+            dto.setTitle("Notice " + i);
+            dto.setMessage("Body " + i);
+            dto.setType("SYSTEM_NOTIFICATION");
+            ids[i] = notificationService.createNotification(dto, reviewer.getId()).getId();
+        }
+        notificationService.markAsRead(ids[0]);
+        notificationService.markAsRead(ids[0]);
+        notificationService.deleteNotification(ids[1]);
+
+        assertEquals(1, count(() -> assertEquals(1, notificationService.getUnreadCount(reviewer.getId()).getUnreadCount())));
+    }
+
+    @Test
+    void projectedListsFillDtoFields() {
+        entityManager.flush();
+        entityManager.clear();
+
+        PromotionRequestDTO request = promotionRequestService.getRequestsByApplicant(firstRequest.getApplicant().getId()).get(0);
+        assertEquals("Applicant 0", request.getApplicantName());
+        assertEquals("Test Department", request.getDepartmentName());
+        assertEquals("Test School", request.getSchoolName());
+        assertEquals("SUBMITTED", request.getStatus());
+
+        DocumentDTO document = documentService.getDocumentsByUploader(firstRequest.getApplicant().getId()).get(0);
+        assertEquals("cv0.pdf", document.getFilename());
+        assertEquals("CV", document.getType());
+        assertEquals("Applicant 0", document.getUploaderName());
+
+        CursorPageDTO<UserDTO> page = userService.findByDepartmentId(department.getId(), null, 1);
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isHasMore());
+        UserDTO user = page.getItems().get(0);
+        assertEquals("Test Department", user.getDepartmentName());
+        assertEquals("Test School", user.getSchoolName());
+    }
+
+    private long count(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User user(String name, String email, User.Role role) {
+        User user = new User(name, email, "secret-password", role);
+        user.setSchool(school);
+        user.setDepartment(department);
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,132 @@
+package com.suza.promotion.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.NotificationRepository;
+import com.suza.promotion.repository.UserRepository;
+import jakarta.mail.Address;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The mail worker sends queued emails in batches at the configured rate,
+ * checked against an in-process SMTP server. Same properties as
+ * NotificationOutboxTest so the two share a context.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox_test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.properties.mail.smtp.connectiontimeout=2000",
+        "outbox.poll-interval=1h",
+        "notifications.mail.poll-interval=1h",
+        "notifications.mail.rate=40"
+})
+class NotificationMailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private NotificationMailService mailService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void queuedEmailsAreSentInRateLimitedBatches() throws Exception {
+        User staff = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            ids.add(notificationService.notifyUser(staff, null, Notification.NotificationType.SYSTEM_NOTIFICATION,
+                    "Notice " + i, "Body " + i).getId());
+        }
+
+        long started = System.nanoTime();
+        mailService.wake();
+        awaitTrue(() -> notificationRepository.findAllById(ids).stream().allMatch(Notification::getIsEmailSent));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(60, smtp.getReceivedMessages().length);
+        // 60 messages at 40 a second cannot go out in much under 1.5s
+        assertTrue(elapsedMillis >= 1_400, "sent too fast: " + elapsedMillis + "ms");
+
+        List<Notification> sent = notificationRepository.findAllById(ids);
+        assertTrue(sent.stream().allMatch(n -> n.getEmailAttempts() == 1 && n.getNextEmailAttemptAt() == null));
+        // Each batch of 50 is marked with a single update, so rows share a sent timestamp per batch
+        assertEquals(2, sent.stream().map(Notification::getEmailSentAt).filter(Objects::nonNull).distinct().count());
+        assertTrue(sent.stream().allMatch(n -> !n.getEmailSentAt().isAfter(LocalDateTime.now())));
+    }
+
+    @Test
+    void unreachableServerPostponesEmailsWithoutUsingAttempts() throws Exception {
+        smtp.stop();
+        User staff = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(notificationService.notifyUser(staff, null, Notification.NotificationType.SYSTEM_NOTIFICATION,
+                    "Offline " + i, "Body " + i).getId());
+        }
+        LocalDateTime queuedBy = LocalDateTime.now();
+
+        mailService.wake();
+        awaitTrue(() -> notificationRepository.findAllById(ids).stream()
+                .allMatch(n -> n.getLastEmailError() != null));
+
+        for (Notification notification : notificationRepository.findAllById(ids)) {
+            assertFalse(notification.getIsEmailSent());
+            assertEquals(0, notification.getEmailAttempts());
+            assertTrue(notification.getNextEmailAttemptAt().isAfter(queuedBy));
+        }
+    }
+
+    @Test
+    void smtpReplyCodesDecideWhetherARefusalIsFinal() throws Exception {
+        InternetAddress to = new InternetAddress("staff@suza.ac.tz");
+        Address[] none = new Address[0];
+
+        // Refused recipients carry their reply codes on the next exceptions
+        assertTrue(NotificationMailService.isPermanent(new SendFailedException("Invalid Addresses",
+                new SMTPAddressFailedException(to, "RCPT TO", 550, "no such user"), none, none, new Address[]{to})));
+        assertFalse(NotificationMailService.isPermanent(new SendFailedException("Invalid Addresses",
+                new SMTPAddressFailedException(to, "RCPT TO", 452, "mailbox full"), none, new Address[]{to}, none)));
+
+        // Failures after the recipients carry the code themselves
+        assertFalse(NotificationMailService.isPermanent(new SMTPSendFailedException("DATA", 451,
+                "try again later", null, none, new Address[]{to}, none)));
+        assertTrue(NotificationMailService.isPermanent(new SMTPSendFailedException("DATA", 554,
+                "message rejected", null, none, new Address[]{to}, none)));
+
+        // No reply code: only addresses the client itself rejected are final
+        assertTrue(NotificationMailService.isPermanent(new SendFailedException("bad", null, none, none,
+                new Address[]{to})));
+        assertFalse(NotificationMailService.isPermanent(new SendFailedException("no recipients")));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.suza.promotion.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionReviewDTO;
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.entity.OutboxEvent;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.NotificationRepository;
+import com.suza.promotion.repository.OutboxEventRepository;
+import com.suza.promotion.repository.UserRepository;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Workflow changes go through the outbox to notifications and email, checked
+ * against an in-process SMTP server.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox_test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.properties.mail.smtp.connectiontimeout=2000",
+        "outbox.poll-interval=1h",
+        "notifications.mail.poll-interval=1h",
+        "notifications.mail.rate=40"
+})
+class NotificationOutboxTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private PromotionReviewService promotionReviewService;
+    @Autowired private NotificationOutboxService outboxService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void statusChangesNotifyApplicantAndNextReviewer() throws Exception {
+        User staff = user("staff@suza.ac.tz");
+        Long requestId = submitRequest(staff);
+
+        awaitTrue(() -> smtp.getReceivedMessages().length == 2);
+        assertEquals(Set.of("staff@suza.ac.tz", "hod@suza.ac.tz"), recipients());
+
+        List<Notification> applicantNotifications = notificationsFor(staff, requestId);
+        assertEquals(1, applicantNotifications.size());
+        assertEquals(Notification.NotificationType.APPLICATION_SUBMITTED, applicantNotifications.get(0).getType());
+        awaitTrue(() -> notificationsFor(staff, requestId).get(0).getIsEmailSent());
+
+        PromotionReviewDTO review = new PromotionReviewDTO();
+        review.setPromotionRequestId(requestId);
+        review.setReviewerId(user("hod@suza.ac.tz").getId());
+        review.setDecision("APPROVED");
+        review.setComments("Strong case");
+        promotionReviewService.createOrUpdateReview(review);
+
+        awaitTrue(() -> smtp.getReceivedMessages().length == 4);
+        assertTrue(recipients().contains("dean@suza.ac.tz"));
+        assertTrue(outboxEventRepository.findAll().stream()
+                .allMatch(event -> event.getStatus() == OutboxEvent.Status.DONE));
+    }
+
+    @Test
+    void failedEmailsAreRetried() throws Exception {
+        User staff = user("staff@suza.ac.tz");
+        smtp.stop();
+        Long requestId = submitRequest(staff);
+
+        awaitTrue(() -> !notificationsFor(staff, requestId).isEmpty()
+                && notificationsFor(staff, requestId).get(0).getLastEmailError() != null);
+        Notification failed = notificationsFor(staff, requestId).get(0);
+        assertFalse(failed.getIsEmailSent());
+        // An unreachable server does not use up the message's attempts
+        assertEquals(0, failed.getEmailAttempts());
+        assertTrue(failed.getNextEmailAttemptAt().isAfter(LocalDateTime.now()));
+
+        smtp.start();
+        failed.setNextEmailAttemptAt(LocalDateTime.now());
+        notificationRepository.save(failed);
+        outboxService.wake();
+
+        awaitTrue(() -> notificationsFor(staff, requestId).get(0).getIsEmailSent());
+        assertTrue(recipients().contains("staff@suza.ac.tz"));
+    }
+
+    private Long submitRequest(User applicant) {
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank("Lecturer");
+        Long requestId = promotionRequestService.createRequest(dto, applicant.getId()).getId();
+        promotionRequestService.submitRequest(requestId);
+        return requestId;
+    }
+
+    private List<Notification> notificationsFor(User user, Long requestId) {
+        return notificationRepository.findByUserId(user.getId()).stream()
+                .filter(notification -> notification.getPromotionRequest() != null
+                        && requestId.equals(notification.getPromotionRequest().getId()))
+                .collect(Collectors.toList());
+    }
+
+    private Set<String> recipients() {
+        return Arrays.stream(smtp.getReceivedMessages())
+                .map(NotificationOutboxTest::recipient)
+                .collect(Collectors.toSet());
+    }
+
+    private static String recipient(MimeMessage message) {
+        try {
+            return message.getRecipients(Message.RecipientType.TO)[0].toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private User user(String email) {
+        return userRepository.findByEmail(email).orElseThrow();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
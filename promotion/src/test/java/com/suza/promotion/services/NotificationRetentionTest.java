@@ -0,0 +1,123 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.NotificationDTO;
+import com.suza.promotion.dto.RegisterUserDTO;
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.entity.NotificationArchive;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.NotificationArchiveRepository;
+import com.suza.promotion.repository.NotificationRepository;
+import com.suza.promotion.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The retention purge archives old notifications before deleting them, in
+ * batches, and keeps the unread counter in step. Its own database, because
+ * archiving is off by default.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retention_test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "notifications.retention.read-days=90",
+        "notifications.retention.max-days=365",
+        "notifications.retention.archive=true",
+        "notifications.retention.batch-size=3",
+        "notifications.retention.batch-pause=0ms"
+})
+class NotificationRetentionTest {
+
+    @Autowired private NotificationRetentionService retentionService;
+    @Autowired private NotificationService notificationService;
+    @Autowired private UserService userService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private NotificationArchiveRepository archiveRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void oldNotificationsAreArchivedThenDeleted() {
+        User user = newUser();
+        LocalDateTime now = LocalDateTime.now();
+        Long readOld = notification(user, now.minusDays(100), true);
+        Long readRecent = notification(user, now.minusDays(10), true);
+        Long unreadOld = notification(user, now.minusDays(100), false);
+        Long readAncient = notification(user, now.minusDays(400), true);
+        List<Long> unreadAncient = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            unreadAncient.add(notification(user, now.minusDays(400 + i), false));
+        }
+        assertEquals(5, notificationService.getUnreadCount(user.getId()).getUnreadCount());
+
+        NotificationRetentionService.PurgeResult result = retentionService.purge(now);
+
+        assertEquals(2, result.read());
+        // Four unread rows with a batch size of three take two batches
+        assertEquals(4, result.unread());
+        Set<Long> purged = new HashSet<>(unreadAncient);
+        purged.add(readOld);
+        purged.add(readAncient);
+        Set<Long> remaining = notificationRepository.findByUserId(user.getId()).stream()
+                .map(Notification::getId).collect(Collectors.toSet());
+        assertEquals(Set.of(readRecent, unreadOld), remaining);
+
+        List<NotificationArchive> archived = archiveRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                user.getId(), Long.MAX_VALUE, Limit.of(100));
+        assertEquals(purged, archived.stream().map(NotificationArchive::getId).collect(Collectors.toSet()));
+        for (NotificationArchive row : archived) {
+            assertEquals(!unreadAncient.contains(row.getId()), row.getIsRead());
+            assertEquals("Notice " + row.getId(), row.getTitle());
+            assertTrue(Duration.between(now, row.getArchivedAt()).abs().toMillis() < 1000);
+        }
+
+        // Only the unread rows that went are taken off the badge
+        assertEquals(1, notificationService.getUnreadCount(user.getId()).getUnreadCount());
+        assertEquals(notificationRepository.findByUserIdAndIsReadFalse(user.getId()).size(),
+                notificationService.getUnreadCount(user.getId()).getUnreadCount());
+
+        List<NotificationDTO> page = notificationService.getArchivedNotifications(user.getId(), null, 10).getItems();
+        assertEquals(6, page.size());
+        assertTrue(page.get(0).getId() > page.get(5).getId());
+
+        // Nothing left to do on a second run
+        NotificationRetentionService.PurgeResult again = retentionService.purge(now);
+        assertEquals(0, again.read() + again.unread());
+        assertFalse(notificationRepository.existsById(readOld));
+    }
+
+    private Long notification(User user, LocalDateTime createdAt, boolean read) {
+        Notification notification = notificationService.notifyUser(user, null,
+                Notification.NotificationType.SYSTEM_NOTIFICATION, "pending", "Body");
+        Long id = notification.getId();
+        if (read) {
+            notificationService.markAsRead(id);
+        }
+        // created_at is not updatable through the entity
+        jdbcTemplate.update("update notifications set created_at = ?, title = ? where id = ?",
+                createdAt, "Notice " + id, id);
+        return id;
+    }
+
+    private User newUser() {
+        RegisterUserDTO dto = new RegisterUserDTO();
+        dto.setFullName("Retention Test");
+        dto.setEmail("retention-" + UUID.randomUUID() + "@suza.ac.tz");
+        dto.setRole(User.Role.ACADEMIC.name());
+        return userRepository.findById(userService.registerUser(dto).getId()).orElseThrow();
+    }
+}
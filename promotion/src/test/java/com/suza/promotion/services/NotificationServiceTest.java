@@ -0,0 +1,197 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.BroadcastNotificationDTO;
+import com.suza.promotion.dto.BulkResultDTO;
+import com.suza.promotion.dto.RegisterUserDTO;
+import com.suza.promotion.entity.Notification;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.repository.NotificationRepository;
+import com.suza.promotion.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The per-user unread counter stays equal to the number of unread rows through
+ * bulk reads, deletes and broadcasts, and when reads and deletes race on the
+ * same notification.
+ */
+@SpringBootTest
+class NotificationServiceTest {
+    private static final int ROUNDS = 20;
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private UserService userService;
+    @Autowired private NotificationRepository notificationRepository;
+    @Autowired private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser(User.Role.ACADEMIC);
+    }
+
+    @Test
+    void concurrentDeleteAndReadDecrementOnce() throws Exception {
+        List<Long> ids = notify(user, ROUNDS);
+
+        race(ids, id -> notificationService.deleteNotification(id), id -> notificationService.markAsRead(id));
+
+        assertCounterMatchesRows(user);
+        assertEquals(0, notificationService.getUnreadCount(user.getId()).getUnreadCount());
+    }
+
+    @Test
+    void concurrentDeletesOfOneNotificationDecrementOnce() throws Exception {
+        List<Long> ids = notify(user, ROUNDS);
+        List<Long> kept = notify(user, 3);
+
+        race(ids, id -> notificationService.deleteNotification(id), id -> notificationService.deleteNotification(id));
+
+        assertCounterMatchesRows(user);
+        assertEquals(kept.size(), notificationService.getUnreadCount(user.getId()).getUnreadCount());
+    }
+
+    @Test
+    void bulkReadCountsOnlyRowsThatWereUnread() {
+        User other = newUser(User.Role.ACADEMIC);
+        List<Long> mine = notify(user, 5);
+        List<Long> theirs = notify(other, 3);
+        notificationService.markAsRead(mine.get(0));
+
+        List<Long> ids = new ArrayList<>(mine);
+        ids.add(theirs.get(0));
+        ids.add(mine.get(1));
+        BulkResultDTO result = notificationService.markAsRead(ids);
+
+        assertEquals(5, result.getCount());
+        assertEquals(0, notificationService.getUnreadCount(user.getId()).getUnreadCount());
+        assertEquals(2, notificationService.getUnreadCount(other.getId()).getUnreadCount());
+        assertCounterMatchesRows(user);
+        assertCounterMatchesRows(other);
+
+        assertEquals(2, notificationService.markAllAsRead(other.getId()).getCount());
+        assertEquals(0, notificationService.getUnreadCount(other.getId()).getUnreadCount());
+        assertEquals(0, notificationService.markAllAsRead(other.getId()).getCount());
+    }
+
+    @Test
+    void bulkDeleteDecrementsOnlyForUnreadRows() {
+        User other = newUser(User.Role.ACADEMIC);
+        List<Long> mine = notify(user, 4);
+        List<Long> theirs = notify(other, 2);
+        notificationService.markAsRead(List.of(mine.get(0), mine.get(1)));
+
+        BulkResultDTO result = notificationService.deleteNotifications(
+                List.of(mine.get(0), mine.get(2), theirs.get(0), -1L));
+
+        assertEquals(3, result.getCount());
+        assertEquals(1, notificationService.getUnreadCount(user.getId()).getUnreadCount());
+        assertEquals(1, notificationService.getUnreadCount(other.getId()).getUnreadCount());
+        assertCounterMatchesRows(user);
+        assertCounterMatchesRows(other);
+    }
+
+    @Test
+    void roleBroadcastReachesEveryActiveUserWithThatRole() {
+        User hr = newUser(User.Role.HR);
+        User retired = newUser(User.Role.HR);
+        retired.setIsActive(false);
+        userRepository.save(retired);
+        List<User> recipients = userRepository.findByRole(User.Role.HR).stream()
+                .filter(candidate -> !Boolean.FALSE.equals(candidate.getIsActive()))
+                .toList();
+        Map<Long, Long> before = new HashMap<>();
+        for (User candidate : userRepository.findAll()) {
+            before.put(candidate.getId(), notificationService.getUnreadCount(candidate.getId()).getUnreadCount());
+        }
+
+        BroadcastNotificationDTO dto = new BroadcastNotificationDTO();
+        dto.setTitle("Payroll " + UUID.randomUUID());
+        dto.setMessage("Promotion arrears are in this month's payroll");
+        dto.setRole("hr");
+        BulkResultDTO result = notificationService.broadcast(dto);
+
+        assertTrue(recipients.stream().anyMatch(candidate -> candidate.getId().equals(hr.getId())));
+        assertEquals(recipients.size(), result.getCount());
+        for (User candidate : userRepository.findAll()) {
+            boolean recipient = recipients.stream().anyMatch(r -> r.getId().equals(candidate.getId()));
+            long delta = notificationService.getUnreadCount(candidate.getId()).getUnreadCount()
+                    - before.get(candidate.getId());
+            assertEquals(recipient ? 1 : 0, delta, candidate.getEmail());
+            assertEquals(recipient ? 1 : 0, notificationRepository.findByUserId(candidate.getId()).stream()
+                    .filter(notification -> dto.getTitle().equals(notification.getTitle())).count());
+        }
+        assertCounterMatchesRows(hr);
+    }
+
+    private interface Action {
+        void run(Long id) throws Exception;
+    }
+
+    // Both actions start together on every id; losing the race (the row is gone) is expected
+    private static void race(List<Long> ids, Action first, Action second) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (Long id : ids) {
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                List<Future<?>> runs = new ArrayList<>();
+                for (Action action : List.of(first, second)) {
+                    runs.add(pool.submit(() -> {
+                        barrier.await();
+                        try {
+                            action.run(id);
+                        } catch (ResourceNotFoundException ignored) {
+                            // the other thread deleted it first
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> run : runs) {
+                    run.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Long> notify(User recipient, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(notificationService.notifyUser(recipient, null, Notification.NotificationType.SYSTEM_NOTIFICATION,
+                    "Notice " + i, "Body " + i).getId());
+        }
+        return ids;
+    }
+
+    private void assertCounterMatchesRows(User recipient) {
+        assertEquals(notificationRepository.findByUserIdAndIsReadFalse(recipient.getId()).size(),
+                notificationService.getUnreadCount(recipient.getId()).getUnreadCount());
+    }
+
+    private User newUser(User.Role role) {
+        RegisterUserDTO dto = new RegisterUserDTO();
+        dto.setFullName("Counter Test");
+        dto.setEmail("counter-" + UUID.randomUUID() + "@suza.ac.tz");
+        dto.setRole(role.name());
+        return userRepository.findById(userService.registerUser(dto).getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.PreviewDTO;
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class PreviewServiceTest {
+
+    @Autowired private PreviewService previewService;
+    @Autowired private DocumentService documentService;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void failedRenderIsReportedAsFailed() throws Exception {
+        Long staffId = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow().getId();
+        PromotionRequestDTO request = new PromotionRequestDTO();
+        request.setCurrentRank("Assistant Lecturer");
+        request.setAppliedRank("Lecturer");
+        Long requestId = promotionRequestService.createRequest(request, staffId).getId();
+        // Sniffed as a PDF, but PDFBox cannot parse it
+        byte[] content = ("%PDF-1.4 truncated " + UUID.randomUUID()).getBytes(StandardCharsets.US_ASCII);
+        Long documentId = documentService.uploadStream(new ByteArrayInputStream(content), content.length,
+                requestId, staffId, "broken.pdf", null, "CV", "test").getId();
+
+        PreviewDTO preview = previewService.getPreview(documentId);
+        for (int i = 0; i < 100 && PreviewService.PENDING.equals(preview.getStatus()); i++) {
+            Thread.sleep(100);
+            preview = previewService.getPreview(documentId);
+        }
+
+        assertEquals(PreviewService.FAILED, preview.getStatus());
+        assertNull(preview.getExcerpt());
+        // Stays failed rather than being queued again on every poll
+        assertEquals(PreviewService.FAILED, previewService.getPreview(documentId).getStatus());
+    }
+}
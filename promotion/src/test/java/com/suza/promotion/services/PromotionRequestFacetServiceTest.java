@@ -0,0 +1,137 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.FacetBucketDTO;
+import com.suza.promotion.dto.FacetCellDTO;
+import com.suza.promotion.dto.FacetCountsDTO;
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionRequestFilterDTO;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.DepartmentRepository;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.SchoolRepository;
+import com.suza.promotion.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Dashboard facet counts: the roll-up from grouped rows and the short-lived
+ * per-filter cache. Each test applies for a rank of its own.
+ */
+@SpringBootTest
+class PromotionRequestFacetServiceTest {
+
+    @Autowired private PromotionRequestFacetService facetService;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private PromotionRequestRepository promotionRequestRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private SchoolRepository schoolRepository;
+    @Autowired private DepartmentRepository departmentRepository;
+
+    private User staff;
+    private String rank;
+
+    @BeforeEach
+    void setUp() {
+        staff = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow();
+        rank = "Lecturer " + UUID.randomUUID();
+    }
+
+    @Test
+    void groupsRollUpIntoFacetTotalsAndCells() {
+        request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2005, 3, 1, 0, 0));
+        request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2005, 3, 31, 23, 59));
+        request(PromotionRequest.Status.HOD_REVIEWED, LocalDateTime.of(2005, 4, 1, 8, 0));
+        request(PromotionRequest.Status.DRAFT, null);
+
+        FacetCountsDTO counts = facetService.countFacets(filter(null));
+
+        assertEquals(4, counts.getTotal());
+        // Largest first, ties by key
+        assertEquals(List.of("SUBMITTED=2", "DRAFT=1", "HOD_REVIEWED=1"), buckets(counts.getStatus()));
+        assertEquals(List.of(rank + "=4"), buckets(counts.getAppliedRank()));
+        // Ids are labelled with their names
+        Long schoolId = staff.getSchool().getId();
+        Long departmentId = staff.getDepartment().getId();
+        FacetBucketDTO school = counts.getSchool().get(0);
+        assertEquals(String.valueOf(schoolId), school.getKey());
+        assertEquals(schoolRepository.findById(schoolId).orElseThrow().getName(), school.getLabel());
+        assertEquals(4, school.getCount());
+        FacetBucketDTO department = counts.getDepartment().get(0);
+        assertEquals(String.valueOf(departmentId), department.getKey());
+        assertEquals(departmentRepository.findById(departmentId).orElseThrow().getName(), department.getLabel());
+        assertEquals(4, department.getCount());
+        // Calendar order; the draft has no submission month
+        assertEquals(List.of("2005-03=2", "2005-04=1"), buckets(counts.getMonth()));
+
+        List<String> cells = counts.getCells().stream().map(PromotionRequestFacetServiceTest::cell).sorted().toList();
+        assertEquals(List.of("DRAFT/null=1", "HOD_REVIEWED/2005-04=1", "SUBMITTED/2005-03=2"), cells);
+        assertEquals(schoolId, counts.getCells().get(0).getSchoolId());
+        assertEquals(departmentId, counts.getCells().get(0).getDepartmentId());
+    }
+
+    @Test
+    void countsAreCachedPerCanonicalFilterUntilTheTtlPasses() throws Exception {
+        Duration ttl = (Duration) ReflectionTestUtils.getField(facetService, "cacheTtl");
+        ReflectionTestUtils.setField(facetService, "cacheTtl", Duration.ofMillis(500));
+        try {
+            request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2005, 5, 1, 9, 0));
+            FacetCountsDTO first = facetService.countFacets(filter(List.of("SUBMITTED", "DRAFT")));
+
+            request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2005, 5, 2, 9, 0));
+            // Same statuses in another order and with stray spaces share the entry
+            FacetCountsDTO cached = facetService.countFacets(filter(List.of(" DRAFT", "SUBMITTED ")));
+            assertSame(first, cached);
+            assertEquals(1, cached.getTotal());
+            // A different filter is its own entry
+            assertEquals(2, facetService.countFacets(filter(List.of("SUBMITTED"))).getTotal());
+
+            Thread.sleep(600);
+            FacetCountsDTO fresh = facetService.countFacets(filter(List.of("DRAFT", "SUBMITTED")));
+            assertNotSame(first, fresh);
+            assertEquals(2, fresh.getTotal());
+        } finally {
+            ReflectionTestUtils.setField(facetService, "cacheTtl", ttl);
+        }
+    }
+
+    private PromotionRequestFilterDTO filter(List<String> statuses) {
+        PromotionRequestFilterDTO filter = new PromotionRequestFilterDTO();
+        filter.setStatus(statuses);
+        filter.setAppliedRank(List.of(rank));
+        return filter;
+    }
+
+    private static List<String> buckets(List<FacetBucketDTO> buckets) {
+        return buckets.stream().map(bucket -> bucket.getKey() + "=" + bucket.getCount()).toList();
+    }
+
+    private static String cell(FacetCellDTO cell) {
+        return cell.getStatus() + "/" + cell.getMonth() + "=" + cell.getCount();
+    }
+
+    private void request(PromotionRequest.Status status, LocalDateTime submissionDate) {
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank(rank);
+        Long id = promotionRequestService.createRequest(dto, staff.getId()).getId();
+        if (status != PromotionRequest.Status.DRAFT) {
+            PromotionRequest request = promotionRequestRepository.findById(id).orElseThrow();
+            request.setStatus(status);
+            request.setSubmissionDate(submissionDate);
+            promotionRequestRepository.save(request);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.CursorPageDTO;
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionRequestFilterDTO;
+import com.suza.promotion.entity.PromotionRequest;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.repository.PromotionRequestRepository;
+import com.suza.promotion.repository.UserRepository;
+import com.suza.promotion.util.CursorUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Filters and keyset pages of the combined promotion request search. Each test
+ * applies for a rank of its own so rows from other tests never match.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PromotionRequestSearchTest {
+    private static final LocalDateTime MARCH_1 = LocalDateTime.of(2004, 3, 1, 9, 0);
+    private static final LocalDateTime MARCH_2 = LocalDateTime.of(2004, 3, 2, 9, 0);
+    private static final LocalDateTime MARCH_3 = LocalDateTime.of(2004, 3, 3, 9, 0);
+
+    @Autowired private MockMvc mvc;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private PromotionRequestRepository promotionRequestRepository;
+    @Autowired private UserRepository userRepository;
+
+    private User staff;
+    private String rank;
+
+    @BeforeEach
+    void setUp() {
+        staff = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow();
+        rank = "Lecturer " + UUID.randomUUID();
+    }
+
+    @Test
+    void filtersAreCombinedAndTheDateRangeIsInclusive() {
+        Long firstDay = request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2004, 3, 1, 0, 0));
+        Long lastDay = request(PromotionRequest.Status.HOD_REVIEWED, LocalDateTime.of(2004, 3, 31, 23, 59));
+        request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2004, 4, 1, 0, 0));
+        request(PromotionRequest.Status.SUBMITTED, LocalDateTime.of(2004, 2, 29, 23, 59));
+        request(PromotionRequest.Status.REJECTED, MARCH_2);
+        request(PromotionRequest.Status.DRAFT, null);
+
+        PromotionRequestFilterDTO filter = filter();
+        filter.setStatus(List.of("SUBMITTED", "HOD_REVIEWED"));
+        filter.setSchoolId(staff.getSchool().getId());
+        filter.setDepartmentId(staff.getDepartment().getId());
+        filter.setSubmittedFrom(LocalDate.of(2004, 3, 1));
+        filter.setSubmittedTo(LocalDate.of(2004, 3, 31));
+        assertEquals(List.of(lastDay, firstDay), ids(promotionRequestService.searchRequests(filter, null, null)));
+
+        filter.setSchoolId(-1L);
+        assertEquals(List.of(), ids(promotionRequestService.searchRequests(filter, null, null)));
+    }
+
+    @Test
+    void submissionDateCursorWalksTiesInBothDirections() {
+        Long first = request(PromotionRequest.Status.SUBMITTED, MARCH_1);
+        Long tieA = request(PromotionRequest.Status.SUBMITTED, MARCH_2);
+        Long tieB = request(PromotionRequest.Status.SUBMITTED, MARCH_2);
+        Long tieC = request(PromotionRequest.Status.SUBMITTED, MARCH_2);
+        Long last = request(PromotionRequest.Status.SUBMITTED, MARCH_3);
+        // Not submitted yet, so it has no place in a submission date order
+        request(PromotionRequest.Status.DRAFT, null);
+
+        PromotionRequestFilterDTO filter = filter();
+        filter.setSort("submissionDate");
+        filter.setDirection("asc");
+        assertEquals(List.of(first, tieA, tieB, tieC, last), walk(filter));
+
+        filter.setDirection("desc");
+        assertEquals(List.of(last, tieC, tieB, tieA, first), walk(filter));
+    }
+
+    @Test
+    void submissionKeepsTheTimeOfDay() throws Exception {
+        Long first = request(PromotionRequest.Status.DRAFT, null);
+        Long second = request(PromotionRequest.Status.DRAFT, null);
+        LocalDateTime before = LocalDateTime.now();
+        LocalDateTime submitted = promotionRequestService.submitRequest(second).getSubmissionDate();
+        Thread.sleep(5);
+        promotionRequestService.submitRequest(first);
+
+        assertFalse(submitted.isBefore(before));
+        // Submitted later on the same day, so it sorts after the other
+        PromotionRequestFilterDTO filter = filter();
+        filter.setSort("submissionDate");
+        filter.setDirection("asc");
+        assertEquals(List.of(second, first), walk(filter));
+    }
+
+    @Test
+    void idCursorPagesWithoutGapsOrRepeats() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(request(PromotionRequest.Status.DRAFT, null));
+        }
+
+        PromotionRequestFilterDTO filter = filter();
+        filter.setDirection("asc");
+        assertEquals(created, walk(filter));
+        filter.setDirection("desc");
+        List<Long> newestFirst = new ArrayList<>(created);
+        Collections.reverse(newestFirst);
+        assertEquals(newestFirst, walk(filter));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        PromotionRequestFilterDTO filter = filter();
+        filter.setSort("submissionDate");
+        assertThrows(IllegalArgumentException.class,
+                () -> promotionRequestService.searchRequests(filter, CursorUtils.encodeKey("yesterday", 1L), 2));
+
+        mvc.perform(get("/api/promotion-requests/search").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        // An id cursor does not fit a submission date sort
+        mvc.perform(get("/api/promotion-requests/search").param("sort", "submissionDate")
+                        .param("cursor", CursorUtils.encode(10L)))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/promotion-requests/search").param("submittedFrom", "2004-03-02")
+                        .param("submittedTo", "2004-03-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private PromotionRequestFilterDTO filter() {
+        PromotionRequestFilterDTO filter = new PromotionRequestFilterDTO();
+        filter.setAppliedRank(List.of(rank));
+        return filter;
+    }
+
+    // Follows nextCursor two rows at a time
+    private List<Long> walk(PromotionRequestFilterDTO filter) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<PromotionRequestDTO> page = promotionRequestService.searchRequests(filter, cursor, 2);
+            seen.addAll(ids(page));
+            assertEquals(page.isHasMore(), page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private static List<Long> ids(CursorPageDTO<PromotionRequestDTO> page) {
+        return page.getItems().stream().map(PromotionRequestDTO::getId).toList();
+    }
+
+    private Long request(PromotionRequest.Status status, LocalDateTime submissionDate) {
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank(rank);
+        Long id = promotionRequestService.createRequest(dto, staff.getId()).getId();
+        if (status != PromotionRequest.Status.DRAFT) {
+            PromotionRequest request = promotionRequestRepository.findById(id).orElseThrow();
+            request.setStatus(status);
+            request.setSubmissionDate(submissionDate);
+            promotionRequestRepository.save(request);
+        }
+        return id;
+    }
+}
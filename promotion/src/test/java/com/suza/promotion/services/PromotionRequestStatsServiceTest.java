@@ -0,0 +1,158 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.PromotionRequestDTO;
+import com.suza.promotion.dto.PromotionReviewDTO;
+import com.suza.promotion.dto.RequestStatsDTO;
+import com.suza.promotion.entity.User;
+import com.suza.promotion.exception.ResourceNotFoundException;
+import com.suza.promotion.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * promotion_request_stats follows requests through create, submit, review and
+ * delete, including when two changes to the same request race. Other tests use
+ * the same school and department, so counts are compared before and after.
+ */
+@SpringBootTest
+class PromotionRequestStatsServiceTest {
+    private static final int ROUNDS = 10;
+
+    @Autowired private PromotionRequestStatsService statsService;
+    @Autowired private PromotionRequestService promotionRequestService;
+    @Autowired private PromotionReviewService reviewService;
+    @Autowired private UserRepository userRepository;
+
+    private User staff;
+    private String period;
+
+    @BeforeEach
+    void setUp() {
+        staff = userRepository.findByEmail("staff@suza.ac.tz").orElseThrow();
+        period = YearMonth.now().toString();
+    }
+
+    @Test
+    void countsFollowTheRequestThroughItsStatuses() {
+        Map<String, long[]> start = snapshot();
+
+        Long id = draft();
+        assertDelta(start, "DRAFT", 1, 0);
+
+        promotionRequestService.submitRequest(id);
+        assertDelta(start, "DRAFT", 0, 1);
+        assertDelta(start, "SUBMITTED", 1, 0);
+
+        PromotionReviewDTO review = new PromotionReviewDTO();
+        review.setPromotionRequestId(id);
+        review.setReviewerId(userRepository.findByEmail("hod@suza.ac.tz").orElseThrow().getId());
+        review.setDecision("approved");
+        review.setComments("Meets the criteria");
+        reviewService.createOrUpdateReview(review);
+        assertDelta(start, "SUBMITTED", 0, 1);
+        assertDelta(start, "UNDER_DEAN_REVIEW", 1, 0);
+
+        // Submitted requests keep their notifications, so only a draft is deleted
+        promotionRequestService.deleteRequest(draft());
+        assertDelta(start, "DRAFT", 0, 1);
+    }
+
+    @Test
+    void concurrentSubmitsMoveTheRequestOnce() throws Exception {
+        List<Long> ids = drafts();
+        Map<String, long[]> start = snapshot();
+
+        race(ids, promotionRequestService::submitRequest, promotionRequestService::submitRequest);
+
+        assertDelta(start, "DRAFT", -ROUNDS, ROUNDS);
+        assertDelta(start, "SUBMITTED", ROUNDS, 0);
+    }
+
+    @Test
+    void concurrentDeletesCountTheRequestOnce() throws Exception {
+        List<Long> ids = drafts();
+        Map<String, long[]> start = snapshot();
+
+        race(ids, promotionRequestService::deleteRequest, promotionRequestService::deleteRequest);
+
+        assertDelta(start, "DRAFT", -ROUNDS, 0);
+    }
+
+    private interface Action {
+        void run(Long id) throws Exception;
+    }
+
+    // Both actions start together on every id; losing the race (the row is gone) is expected
+    private static void race(List<Long> ids, Action first, Action second) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (Long id : ids) {
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                List<Future<?>> runs = new ArrayList<>();
+                for (Action action : List.of(first, second)) {
+                    runs.add(pool.submit(() -> {
+                        barrier.await();
+                        try {
+                            action.run(id);
+                        } catch (ResourceNotFoundException ignored) {
+                            // the other thread deleted it first
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> run : runs) {
+                    run.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Long> drafts() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            ids.add(draft());
+        }
+        return ids;
+    }
+
+    private Long draft() {
+        PromotionRequestDTO dto = new PromotionRequestDTO();
+        dto.setCurrentRank("Assistant Lecturer");
+        dto.setAppliedRank("Lecturer");
+        return promotionRequestService.createRequest(dto, staff.getId()).getId();
+    }
+
+    // {requestCount, exitedCount} per status for this month in the staff member's department
+    private Map<String, long[]> snapshot() {
+        Map<String, long[]> counts = new HashMap<>();
+        for (RequestStatsDTO row : statsService.getStats(staff.getSchool().getId(), staff.getDepartment().getId(),
+                null, period, period)) {
+            counts.put(row.getStatus(), new long[] { row.getRequestCount(), row.getExitedCount() });
+        }
+        return counts;
+    }
+
+    private void assertDelta(Map<String, long[]> start, String status, long requests, long exited) {
+        long[] before = start.getOrDefault(status, new long[2]);
+        long[] after = snapshot().getOrDefault(status, new long[2]);
+        assertEquals(requests, after[0] - before[0], status + " requests");
+        assertEquals(exited, after[1] - before[1], status + " exited");
+    }
+}
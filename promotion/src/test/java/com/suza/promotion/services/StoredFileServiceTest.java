@@ -0,0 +1,98 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.entity.StoredFile;
+import com.suza.promotion.repository.StoredFileRepository;
+import com.suza.promotion.storage.BlobStorage;
+import com.suza.promotion.util.Checksums;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deduplication and reference counting of stored blobs.
+ */
+@SpringBootTest
+class StoredFileServiceTest {
+    private static final int UPLOADERS = 8;
+
+    @Autowired private StoredFileService storedFileService;
+    @Autowired private StoredFileRepository storedFileRepository;
+    @Autowired private BlobStorage blobStorage;
+
+    @Test
+    void concurrentFirstUploadsShareOneBlob() throws Exception {
+        byte[] content = content();
+        CyclicBarrier start = new CyclicBarrier(UPLOADERS);
+        ExecutorService pool = Executors.newFixedThreadPool(UPLOADERS);
+        try {
+            List<Future<StoredFile>> uploads = new ArrayList<>();
+            for (int i = 0; i < UPLOADERS; i++) {
+                uploads.add(pool.submit(() -> {
+                    start.await();
+                    return storedFileService.store(new ByteArrayInputStream(content), "application/zip");
+                }));
+            }
+            Long id = null;
+            for (Future<StoredFile> upload : uploads) {
+                StoredFile stored = upload.get(30, TimeUnit.SECONDS);
+                if (id == null) id = stored.getId();
+                assertEquals(id, stored.getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        StoredFile stored = storedFileRepository.findBySha256(sha256(content)).orElseThrow();
+        assertEquals(UPLOADERS, stored.getReferenceCount());
+        assertEquals(stored.getSha256(), stored.getPath());
+        try (InputStream in = blobStorage.open(stored.getSha256())) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void blobIsDeletedWithTheLastReference() throws Exception {
+        byte[] content = content();
+        StoredFile first = storedFileService.store(new ByteArrayInputStream(content), "application/zip");
+        StoredFile second = storedFileService.store(new ByteArrayInputStream(content), "application/zip");
+        assertEquals(first.getId(), second.getId());
+        assertEquals(2, storedFileRepository.findById(first.getId()).orElseThrow().getReferenceCount());
+
+        storedFileService.release(first);
+        assertEquals(1, storedFileRepository.findById(first.getId()).orElseThrow().getReferenceCount());
+        assertTrue(blobStorage.exists(first.getSha256()));
+
+        storedFileService.release(second);
+        assertFalse(storedFileRepository.existsById(first.getId()));
+        assertFalse(blobStorage.exists(first.getSha256()));
+    }
+
+    // ZIP signature, so the blob is stored as is
+    private static byte[] content() {
+        return ("PK\u0003\u0004" + UUID.randomUUID()).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static String sha256(byte[] content) {
+        MessageDigest digest = Checksums.sha256();
+        digest.update(content);
+        return Checksums.hex(digest);
+    }
+}
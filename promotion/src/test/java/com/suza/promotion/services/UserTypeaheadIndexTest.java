@@ -0,0 +1,97 @@
+package com.suza.promotion.services;
+
+import com.suza.promotion.dto.UserDTO;
+import com.suza.promotion.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Snapshot merges, exercised through put and search; no repository is needed
+ * because the index is never loaded here.
+ */
+class UserTypeaheadIndexTest {
+
+    private final UserTypeaheadIndex index = new UserTypeaheadIndex(null);
+
+    @Test
+    void insertedUsersAreFoundByAnyTokenPrefix() {
+        index.put(user(1L, "Amina Juma", "amina.juma@suza.ac.tz", "SZ-001"));
+        index.put(user(2L, "Juma Ali", "jali@suza.ac.tz", null));
+
+        assertEquals(List.of(1L), ids("amina"));
+        assertEquals(List.of(2L, 1L), ids("jum"));
+        assertEquals(List.of(1L), ids("sz-0"));
+        assertEquals(List.of(2L), ids("jali@"));
+    }
+
+    @Test
+    void replacingAUserDropsTheOldTokens() {
+        index.put(user(1L, "Amina Juma", "amina@suza.ac.tz", null));
+        index.put(user(2L, "Halima Said", "halima@suza.ac.tz", null));
+
+        index.put(user(1L, "Amina Khamis", "amina@suza.ac.tz", null));
+
+        assertEquals(List.of(), ids("juma"));
+        assertEquals(List.of(1L), ids("khamis"));
+        assertEquals(List.of(1L), ids("amina"));
+        assertEquals(List.of(2L), ids("halima"));
+    }
+
+    @Test
+    void everyWordOfAMultiWordQueryMustMatch() {
+        index.put(user(1L, "Amina Juma", "a1@suza.ac.tz", null));
+        index.put(user(2L, "Amina Said", "a2@suza.ac.tz", null));
+        index.put(user(3L, "Said Juma", "a3@suza.ac.tz", null));
+
+        assertEquals(List.of(1L), ids("ami ju"));
+        assertEquals(List.of(1L), ids("ju ami"));
+        // Names starting with the whole query rank first
+        assertEquals(List.of(3L, 2L), ids("sa"));
+        assertEquals(List.of(), ids("ami khamis"));
+    }
+
+    @Test
+    void mergesInAnyOrderKeepTheTokensSorted() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(42));
+        for (int i : order) {
+            index.put(user((long) i, "User%03d Name%d".formatted(i, i % 7), "u" + i + "@suza.ac.tz", null));
+        }
+        // Renaming half of them merges removals and inserts into the middle of the array
+        for (int i = 0; i < 200; i += 2) {
+            index.put(user((long) i, "Renamed%03d Name%d".formatted(i, i % 7), "u" + i + "@suza.ac.tz", null));
+        }
+
+        // A lookup is a binary search, so any token out of order would lose matches
+        for (int i = 0; i < 200; i++) {
+            String name = "%s%03d".formatted(i % 2 == 0 ? "renamed" : "user", i);
+            assertEquals(List.of((long) i), ids(name + " name" + (i % 7)), name);
+        }
+        assertEquals(List.of(), ids("user000"));
+        assertTrue(index.search("name3", null, null, null, 50).size() > 20);
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, null, null, null, 50).stream().map(UserDTO::getId).toList();
+    }
+
+    private static User user(Long id, String name, String email, String employeeId) {
+        User user = new User();
+        user.setId(id);
+        user.setFullName(name);
+        user.setEmail(email);
+        user.setEmployeeId(employeeId);
+        user.setRole(User.Role.ACADEMIC);
+        return user;
+    }
+}
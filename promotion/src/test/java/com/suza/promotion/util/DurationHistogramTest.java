@@ -0,0 +1,91 @@
+package com.suza.promotion.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurationHistogramTest {
+    private static final double[] FRACTIONS = {0.01, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1.0};
+
+    @Test
+    void emptyHistogramReportsZero() {
+        DurationHistogram histogram = new DurationHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+
+    @Test
+    void zeroAndNegativeDurationsCountAsZero() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(0);
+        }
+        histogram.record(-5);
+
+        assertEquals(11, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(0, histogram.percentile(1.0));
+    }
+
+    @Test
+    void uniformDurationsAreWithinOnePercent() {
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+        assertPercentilesClose(values);
+    }
+
+    @Test
+    void skewedDurationsAreWithinOnePercent() {
+        // Mostly hours to days with a long tail of months, like time spent in a review stage
+        Random random = new Random(7);
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (-Math.log(1 - random.nextDouble()) * 3 * 86_400);
+        }
+        assertPercentilesClose(values);
+    }
+
+    @Test
+    void veryLargeDurationsGrowTheBuckets() {
+        DurationHistogram histogram = new DurationHistogram();
+        long tenYears = 10L * 365 * 86_400;
+        histogram.record(60);
+        histogram.record(tenYears);
+
+        assertEquals(2, histogram.count());
+        assertEquals(tenYears, histogram.max());
+        assertEquals(60, histogram.percentile(0.5), 1);
+        assertEquals(tenYears, histogram.percentile(1.0));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1.0));
+        long nearTenYears = histogram.percentile(2.0 / 3);
+        assertTrue(Math.abs(nearTenYears - tenYears) <= tenYears * 0.01, Long.toString(nearTenYears));
+    }
+
+    private static void assertPercentilesClose(long[] values) {
+        DurationHistogram histogram = new DurationHistogram();
+        for (long value : values) {
+            histogram.record(value);
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(values.length, histogram.count());
+        assertEquals(sorted[sorted.length - 1], histogram.max());
+        for (double fraction : FRACTIONS) {
+            long exact = sorted[(int) Math.ceil(fraction * sorted.length) - 1];
+            long estimate = histogram.percentile(fraction);
+            // 1% relative, plus one second of rounding for short durations
+            assertTrue(Math.abs(estimate - exact) <= exact * 0.01 + 1,
+                    "p" + fraction + ": exact " + exact + ", estimate " + estimate);
+        }
+    }
+}